@@ -0,0 +1,41 @@
+package net.javaguide.springboottesting;
+
+import net.javaguide.springboottesting.model.Employee;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Hints for the AOT / native image build that Spring can't infer from the bean definitions.
+ * Repository proxies and the JPA entity metadata are contributed by Spring Data and Hibernate AOT support.
+ */
+public class EmployeeRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Jackson (JSON, Smile, CBOR) binds Employee and its Lombok builder by reflection
+        hints.reflection().registerType(Employee.class, MemberCategory.values());
+        hints.reflection().registerType(Employee.EmployeeBuilder.class, MemberCategory.values());
+
+        // the near-cache stores employees with java serialization
+        hints.serialization().registerType(Employee.class);
+        hints.serialization().registerType(Long.class);
+        hints.serialization().registerType(Number.class);
+
+        // Caffeine JCache region configuration
+        hints.resources().registerPattern("application.conf");
+
+        // JDBC proxies created by datasource-proxy for the query log
+        for (Class<?> jdbcType : new Class<?>[]{Connection.class, Statement.class, PreparedStatement.class,
+                CallableStatement.class, ResultSet.class}) {
+            hints.proxies().registerJdkProxy(ProxyJdbcObject.class, jdbcType);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package net.javaguide.springboottesting.aggregate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import net.javaguide.springboottesting.repository.EmployeeRepository;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties(AggregateProperties.class)
+public class AggregateConfig {
+
+    // no compensation threads : a worker blocked on a join doesn't make the pool open more connections
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool aggregatePool(AggregateProperties properties, MeterRegistry meterRegistry) {
+        int parallelism = properties.getParallelism();
+        ForkJoinPool pool = new ForkJoinPool(parallelism, workerPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(workerPool);
+            thread.setName("aggregate-" + thread.getPoolIndex());
+            return thread;
+        }, null, false, parallelism, parallelism, 1, saturated -> true, 60, TimeUnit.SECONDS);
+        ExecutorServiceMetrics.monitor(meterRegistry, pool, "employee.aggregate", Collections.emptyList());
+        return pool;
+    }
+
+    @Bean
+    public EmployeeAggregator employeeAggregator(EmployeeRepository employeeRepository, ForkJoinPool aggregatePool,
+                                                 AggregateProperties properties, MeterRegistry meterRegistry) {
+        return new EmployeeAggregator(employeeRepository, aggregatePool, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,22 @@
+package net.javaguide.springboottesting.aggregate;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.aggregate")
+public class AggregateProperties {
+
+    // range queries running at the same time, each holds a connection : keep it below the pool size
+    private int parallelism = 4;
+
+    // ids per range query
+    private long chunkSize = 50_000;
+
+    // the whole aggregation, ranges not started by then are abandoned
+    private Duration timeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,146 @@
+package net.javaguide.springboottesting.aggregate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.javaguide.springboottesting.repository.EmployeeRepository;
+import net.javaguide.springboottesting.snapshot.EmployeeStats;
+import net.javaguide.springboottesting.snapshot.SnapshotColumn;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BinaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Scatter-gather aggregations over the employees table : the id range is split in halves down to
+ * {@code chunkSize} ids, the ranges are queried in parallel on the aggregate fork-join pool (one connection per
+ * worker, each query in its own read-only transaction) and the partial results are merged on the way up.
+ */
+public class EmployeeAggregator {
+
+    private final EmployeeRepository employeeRepository;
+    private final ForkJoinPool pool;
+    private final AggregateProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public EmployeeAggregator(EmployeeRepository employeeRepository,
+                              ForkJoinPool pool,
+                              AggregateProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.employeeRepository = employeeRepository;
+        this.pool = pool;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public long count() {
+        return aggregate("count", employeeRepository::countByIdBetween, Long::sum, 0L);
+    }
+
+    public EmployeeStats stats(SnapshotColumn column, int limit) {
+        RangeQuery<Map<String, Long>> query = column == SnapshotColumn.LAST_NAME
+                ? (fromId, toId) -> toMap(column, employeeRepository.countByLastNameInIdRange(fromId, toId))
+                : (fromId, toId) -> toMap(column, employeeRepository.countByEmailDomainInIdRange(fromId, toId));
+        Map<String, Long> counts = aggregate("stats." + column.groupBy(), query, EmployeeAggregator::merge, Map.of());
+        List<EmployeeStats.Group> groups = counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .map(entry -> new EmployeeStats.Group(entry.getKey(), entry.getValue()))
+                .toList();
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+        return new EmployeeStats(column.groupBy(), total, Instant.now(), groups);
+    }
+
+    private <T> T aggregate(String name, RangeQuery<T> query, BinaryOperator<T> merge, T empty) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Long minId = employeeRepository.findMinId();
+            Long maxId = employeeRepository.findMaxId();
+            if (minId == null) {
+                return empty;
+            }
+            long deadline = System.nanoTime() + properties.getTimeout().toNanos();
+            ForkJoinTask<T> task = pool.submit(new RangeTask<>(minId, maxId, query, merge, deadline));
+            try {
+                return task.get(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ex) {
+                task.cancel(true);
+                throw new QueryTimeoutException(
+                        "Employee " + name + " not completed within " + properties.getTimeout());
+            } catch (InterruptedException ex) {
+                task.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new QueryTimeoutException("Employee " + name + " interrupted");
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException(ex.getCause());
+            }
+        } finally {
+            sample.stop(Timer.builder("employee.aggregate.duration")
+                    .tag("aggregate", name)
+                    .register(meterRegistry));
+        }
+    }
+
+    // the keys of the queries are regrouped like the snapshot rows : JPQL has no last index of the '@'
+    private static Map<String, Long> toMap(SnapshotColumn column, List<EmployeeRepository.GroupCount> counts) {
+        return counts.stream().collect(Collectors.toMap(count -> column.key(count.getKey()),
+                EmployeeRepository.GroupCount::getCount, Long::sum));
+    }
+
+    private static Map<String, Long> merge(Map<String, Long> left, Map<String, Long> right) {
+        Map<String, Long> merged = new HashMap<>(left);
+        right.forEach((key, count) -> merged.merge(key, count, Long::sum));
+        return merged;
+    }
+
+    @FunctionalInterface
+    private interface RangeQuery<T> {
+        T query(long fromId, long toId);
+    }
+
+    private class RangeTask<T> extends RecursiveTask<T> {
+
+        private final long fromId;
+        private final long toId;
+        private final RangeQuery<T> query;
+        private final BinaryOperator<T> merge;
+        private final long deadline;
+
+        RangeTask(long fromId, long toId, RangeQuery<T> query, BinaryOperator<T> merge, long deadline) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.query = query;
+            this.merge = merge;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected T compute() {
+            if (toId - fromId < properties.getChunkSize()) {
+                if (System.nanoTime() > deadline) {
+                    throw new QueryTimeoutException("Employee aggregation timed out");
+                }
+                return query.query(fromId, toId);
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            RangeTask<T> left = new RangeTask<>(fromId, middle, query, merge, deadline);
+            RangeTask<T> right = new RangeTask<>(middle + 1, toId, query, merge, deadline);
+            left.fork();
+            T rightResult = right.compute();
+            return merge.apply(left.join(), rightResult);
+        }
+    }
+}
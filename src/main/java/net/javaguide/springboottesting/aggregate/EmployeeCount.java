@@ -0,0 +1,4 @@
+package net.javaguide.springboottesting.aggregate;
+
+public record EmployeeCount(long count) {
+}
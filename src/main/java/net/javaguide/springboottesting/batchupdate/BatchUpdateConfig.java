@@ -0,0 +1,9 @@
+package net.javaguide.springboottesting.batchupdate;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(BatchUpdateProperties.class)
+public class BatchUpdateConfig {
+}
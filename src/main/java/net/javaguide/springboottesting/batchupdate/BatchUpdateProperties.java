@@ -0,0 +1,17 @@
+package net.javaguide.springboottesting.batchupdate;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.batch-update")
+public class BatchUpdateProperties {
+
+    // employees loaded, flushed and detached together, best as a multiple of hibernate.jdbc.batch_size
+    private int chunkSize = 500;
+
+    // employees per PUT /api/employees/batch request, the whole request is one transaction
+    private int maxSize = 10_000;
+}
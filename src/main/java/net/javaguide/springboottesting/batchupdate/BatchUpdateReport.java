@@ -0,0 +1,11 @@
+package net.javaguide.springboottesting.batchupdate;
+
+/**
+ * Outcome of a batch update. {@code duplicates} are updates of an employee updated again later in the same request,
+ * only the last one is applied.
+ */
+public record BatchUpdateReport(long rowsUpdated,
+                                long duplicates,
+                                long elapsedMillis,
+                                long rowsPerSecond) {
+}
@@ -0,0 +1,52 @@
+package net.javaguide.springboottesting.bulkhead;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a class of requests on its own bounded executor, off the servlet container threads.
+ * Whatever those requests do (slow scans, connection waits), they can't occupy more threads and connections
+ * than the bulkhead has, so cheap requests such as lookups by id keep their latency.
+ * <p>
+ * A full executor rejects the call with {@link org.springframework.core.task.TaskRejectedException}, a call not done
+ * within the timeout completes with {@link TimeoutException} (both answered with 503). A timed out call is cancelled :
+ * still queued it never runs, running its thread is interrupted.
+ */
+public class Bulkhead {
+
+    private final AsyncTaskExecutor executor;
+    private final long timeoutMillis;
+
+    public Bulkhead(AsyncTaskExecutor executor, long timeoutMillis) {
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            // the caller already got its 503, don't take a connection for it
+            if (result.isDone() || System.nanoTime() - deadline >= 0) {
+                result.completeExceptionally(new TimeoutException());
+                return;
+            }
+            try {
+                result.complete(supplier.get());
+            } catch (Throwable ex) {
+                result.completeExceptionally(ex);
+            }
+        });
+        return result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((value, ex) -> {
+                    if (ex instanceof TimeoutException) {
+                        task.cancel(true);
+                    }
+                });
+    }
+}
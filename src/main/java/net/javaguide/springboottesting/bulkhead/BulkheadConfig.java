@@ -0,0 +1,74 @@
+package net.javaguide.springboottesting.bulkhead;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import net.javaguide.springboottesting.connection.ConnectionHoldTimeDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+
+@Configuration
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class BulkheadConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor scanExecutor(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        return executor("scan", properties.getScan(), meterRegistry);
+    }
+
+    @Bean
+    public Bulkhead scanBulkhead(ThreadPoolTaskExecutor scanExecutor, BulkheadProperties properties) {
+        return new Bulkhead(scanExecutor, properties.getScan().getTimeout().toMillis());
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor serviceExecutor(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        return executor("service", properties.getService(), meterRegistry);
+    }
+
+    @Bean
+    public Bulkhead serviceBulkhead(ThreadPoolTaskExecutor serviceExecutor, BulkheadProperties properties) {
+        return new Bulkhead(serviceExecutor, properties.getService().getTimeout().toMillis());
+    }
+
+    // every bulkhead thread can hold a connection, the servlet threads (writes, idempotency keys) need some left
+    @Bean
+    public ApplicationRunner bulkheadPoolSizeCheck(BulkheadProperties properties,
+                                                   ObjectProvider<DataSource> dataSource) {
+        return args -> {
+            DataSource pooled = dataSource.getIfAvailable();
+            if (pooled == null || !pooled.isWrapperFor(HikariDataSource.class)) {
+                return;
+            }
+            int threads = properties.getScan().getThreads() + properties.getService().getThreads();
+            int maximumPoolSize = pooled.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            if (threads >= maximumPoolSize) {
+                throw new IllegalStateException("The " + threads + " bulkhead threads (employee.bulkhead.scan.threads"
+                        + " + employee.bulkhead.service.threads) must stay below the " + maximumPoolSize
+                        + " connections of spring.datasource.hikari.maximum-pool-size");
+            }
+        };
+    }
+
+    private static ThreadPoolTaskExecutor executor(String name, BulkheadProperties.Pool pool,
+                                                   MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(name + "-");
+        executor.setCorePoolSize(pool.getThreads());
+        executor.setMaxPoolSize(pool.getThreads());
+        executor.setQueueCapacity(pool.getQueueCapacity());
+        // connections taken by the task are counted for the endpoint that submitted it
+        executor.setTaskDecorator(ConnectionHoldTimeDataSource::withCurrentEndpoint);
+        executor.initialize();
+        ExecutorServiceMetrics.monitor(meterRegistry, executor.getThreadPoolExecutor(), "employee.bulkhead." + name,
+                Collections.emptyList());
+        return executor;
+    }
+}
@@ -0,0 +1,30 @@
+package net.javaguide.springboottesting.bulkhead;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.concurrent.TimeoutException;
+
+@RestControllerAdvice
+public class BulkheadExceptionHandler {
+
+    // bulkhead executor and its queue are full
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Void> handleTaskRejected() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+
+    // bulkhead call not done within its timeout
+    @ExceptionHandler(TimeoutException.class)
+    public ResponseEntity<Void> handleTimeout() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+}
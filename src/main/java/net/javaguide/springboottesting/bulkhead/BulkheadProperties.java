@@ -0,0 +1,34 @@
+package net.javaguide.springboottesting.bulkhead;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.bulkhead")
+public class BulkheadProperties {
+
+    // full scans (list of all employees)
+    private Pool scan = new Pool();
+
+    // AsyncEmployeeService lookups and saves
+    private Pool service = new Pool();
+
+    @Getter
+    @Setter
+    public static class Pool {
+
+        // also the maximum number of pooled connections the pool's requests can hold at once, the threads of both
+        // pools must stay below spring.datasource.hikari.maximum-pool-size (checked at startup)
+        private int threads = 2;
+
+        // requests waiting for a thread, further requests are rejected with 503
+        private int queueCapacity = 16;
+
+        // time until the request is answered with 503
+        private Duration timeout = Duration.ofSeconds(10);
+    }
+}
@@ -0,0 +1,330 @@
+package net.javaguide.springboottesting.bulkimport;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import net.javaguide.springboottesting.cache.CacheConfig;
+import net.javaguide.springboottesting.directory.EmployeeDirectory;
+import net.javaguide.springboottesting.model.Employee;
+import net.javaguide.springboottesting.stream.EmployeeChangeBroadcaster;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams a CSV of employees (firstName,lastName,email, optional header line) into the employees table. The caller
+ * thread reads chunks of {@code batchSize} lines, workers parse, validate and dedupe each chunk by email and upsert
+ * it with one JDBC batch of {@code INSERT ... ON DUPLICATE KEY UPDATE} on the unique email index. At most
+ * {@code maxPendingChunks} chunks are read ahead, so the memory used does not depend on the file size.
+ * <p>
+ * Quoted fields are supported, line breaks inside a quoted field are not.
+ */
+public class EmployeeCsvImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeCsvImporter.class);
+
+    static final String UPSERT_SQL = "INSERT INTO employees (first_name, last_name, email) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE first_name = VALUES(first_name), last_name = VALUES(last_name)";
+
+    private static final int MAX_VALUE_LENGTH = 255;
+
+    // column indexes of firstName, lastName and email when the file has no header
+    private static final int[] DEFAULT_COLUMNS = {0, 1, 2};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final EmployeeDirectory employeeDirectory;
+    private final EmployeeChangeBroadcaster employeeChangeBroadcaster;
+    private final ImportProperties properties;
+    private final Counter upsertedRows;
+    private final Counter rejectedRows;
+    private final Counter duplicateRows;
+
+    public EmployeeCsvImporter(JdbcTemplate jdbcTemplate,
+                               TaskExecutor executor,
+                               TransactionTemplate transactionTemplate,
+                               CacheManager cacheManager,
+                               EntityManagerFactory entityManagerFactory,
+                               EmployeeDirectory employeeDirectory,
+                               EmployeeChangeBroadcaster employeeChangeBroadcaster,
+                               ImportProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.executor = executor;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.employeeDirectory = employeeDirectory;
+        this.employeeChangeBroadcaster = employeeChangeBroadcaster;
+        this.properties = properties;
+        this.upsertedRows = rowCounter(meterRegistry, "upserted");
+        this.rejectedRows = rowCounter(meterRegistry, "rejected");
+        this.duplicateRows = rowCounter(meterRegistry, "duplicate");
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("employee.import.rows")
+                .description("CSV rows imported, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public ImportReport importCsv(InputStream csv) throws IOException {
+        long start = System.nanoTime();
+        Run run = new Run();
+        Semaphore pendingChunks = new Semaphore(properties.getMaxPendingChunks());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            int[] columns = DEFAULT_COLUMNS;
+            List<Line> chunk = new ArrayList<>(properties.getBatchSize());
+            long lineNumber = 0;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && isHeader(text)) {
+                    columns = headerColumns(text);
+                    continue;
+                }
+                if (text.isBlank()) {
+                    continue;
+                }
+                chunk.add(new Line(lineNumber, text));
+                if (chunk.size() == properties.getBatchSize()) {
+                    submit(chunk, columns, run, pendingChunks);
+                    chunk = new ArrayList<>(properties.getBatchSize());
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(chunk, columns, run, pendingChunks);
+            }
+        } finally {
+            // wait for the chunks still being upserted
+            pendingChunks.acquireUninterruptibly(properties.getMaxPendingChunks());
+        }
+        if (run.upserted.get() > 0) {
+            evictCaches();
+            reloadDirectory();
+            employeeChangeBroadcaster.reset();
+        }
+        ImportReport report = run.report((System.nanoTime() - start) / 1_000_000);
+        log.info("Employee import done : {} rows read, {} upserted, {} rejected, {} duplicates in {} ms ({} rows/s)",
+                report.rowsRead(), report.rowsUpserted(), report.rowsRejected(), report.duplicates(),
+                report.elapsedMillis(), report.rowsPerSecond());
+        return report;
+    }
+
+    private void submit(List<Line> chunk, int[] columns, Run run, Semaphore pendingChunks) {
+        pendingChunks.acquireUninterruptibly();
+        try {
+            executor.execute(() -> {
+                try {
+                    process(chunk, columns, run);
+                } finally {
+                    pendingChunks.release();
+                }
+            });
+        } catch (TaskRejectedException ex) {
+            pendingChunks.release();
+            throw ex;
+        }
+    }
+
+    private void process(List<Line> chunk, int[] columns, Run run) {
+        // keyed by lower case email as the unique index is case insensitive, sorted so that concurrent chunks lock
+        // the index entries in the same order
+        Map<String, Object[]> rows = new TreeMap<>();
+        for (Line line : chunk) {
+            List<String> fields = parseLine(line.text());
+            String error = validate(fields, columns);
+            if (error != null) {
+                run.reject(line.number(), error);
+                rejectedRows.increment();
+                continue;
+            }
+            String email = fields.get(columns[2]);
+            Object[] previous = rows.put(email.toLowerCase(Locale.ROOT),
+                    new Object[]{fields.get(columns[0]), fields.get(columns[1]), email});
+            if (previous != null) {
+                run.duplicates.incrementAndGet();
+                duplicateRows.increment();
+            }
+        }
+        if (!rows.isEmpty()) {
+            List<Object[]> batch = new ArrayList<>(rows.values());
+            try {
+                upsert(batch);
+                run.upserted.addAndGet(batch.size());
+                upsertedRows.increment(batch.size());
+            } catch (DataAccessException ex) {
+                long first = chunk.get(0).number();
+                long last = chunk.get(chunk.size() - 1).number();
+                log.warn("Employee import of lines {}-{} failed", first, last, ex);
+                run.reject(first, "Lines " + first + "-" + last + " not imported : "
+                        + ex.getMostSpecificCause().getMessage());
+                run.rejected.addAndGet(batch.size() - 1);
+                rejectedRows.increment(batch.size());
+            }
+        }
+        long read = run.read.addAndGet(chunk.size());
+        if ((read - chunk.size()) / properties.getProgressInterval() != read / properties.getProgressInterval()) {
+            log.info("Employee import progress : {} rows read, {} upserted, {} rejected",
+                    read, run.upserted.get(), run.rejected.get());
+        }
+    }
+
+    private void upsert(List<Object[]> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, batch));
+        } catch (TransientDataAccessException ex) {
+            // deadlock or lock wait timeout with a concurrent chunk (or request) writing the same emails, the
+            // transaction was rolled back as a whole so the batch can be replayed
+            log.debug("Employee import batch failed, retrying once", ex);
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, batch));
+        }
+    }
+
+    // rows were written with JDBC, behind the back of the second level cache and of the employees cache
+    private void evictCaches() {
+        Cache cache = cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+        entityManagerFactory.getCache().evict(Employee.class);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    // every chunk is committed, the reload reads them all ; until the next scheduled reload when it fails
+    private void reloadDirectory() {
+        try {
+            employeeDirectory.reload();
+        } catch (DataAccessException ex) {
+            log.warn("Employee directory not reloaded after the import, it is refreshed by the next scheduled reload",
+                    ex);
+        }
+    }
+
+    private static String validate(List<String> fields, int[] columns) {
+        int required = Math.max(columns[0], Math.max(columns[1], columns[2])) + 1;
+        if (fields.size() < required) {
+            return "Expected " + required + " columns, got " + fields.size();
+        }
+        String firstName = fields.get(columns[0]);
+        String lastName = fields.get(columns[1]);
+        String email = fields.get(columns[2]);
+        if (firstName.isEmpty() || lastName.isEmpty() || email.isEmpty()) {
+            return "firstName, lastName and email are required";
+        }
+        if (firstName.length() > MAX_VALUE_LENGTH || lastName.length() > MAX_VALUE_LENGTH
+                || email.length() > MAX_VALUE_LENGTH) {
+            return "Values are limited to " + MAX_VALUE_LENGTH + " characters";
+        }
+        int at = email.indexOf('@');
+        if (at < 1 || at == email.length() - 1) {
+            return "Invalid email : " + email;
+        }
+        return null;
+    }
+
+    private static boolean isHeader(String line) {
+        return parseLine(line).stream().anyMatch(field -> normalize(field).equals("email"));
+    }
+
+    private static int[] headerColumns(String line) {
+        List<String> names = parseLine(line).stream().map(EmployeeCsvImporter::normalize).toList();
+        int[] columns = {names.indexOf("firstname"), names.indexOf("lastname"), names.indexOf("email")};
+        for (int column : columns) {
+            if (column < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "CSV header must name the firstName, lastName and email columns");
+            }
+        }
+        return columns;
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").replace("-", "").toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private record Line(long number, String text) {
+    }
+
+    private class Run {
+
+        private final AtomicLong read = new AtomicLong();
+        private final AtomicLong upserted = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong duplicates = new AtomicLong();
+        private final AtomicInteger reportedErrors = new AtomicInteger();
+        private final ConcurrentLinkedQueue<ImportReport.RowError> errors = new ConcurrentLinkedQueue<>();
+
+        void reject(long line, String message) {
+            rejected.incrementAndGet();
+            if (reportedErrors.getAndIncrement() < properties.getMaxReportedErrors()) {
+                errors.add(new ImportReport.RowError(line, message));
+            }
+        }
+
+        ImportReport report(long elapsedMillis) {
+            List<ImportReport.RowError> sortedErrors = new ArrayList<>(errors);
+            sortedErrors.sort(Comparator.comparingLong(ImportReport.RowError::line));
+            return new ImportReport(read.get(), upserted.get(), rejected.get(), duplicates.get(), elapsedMillis,
+                    read.get() * 1000 / Math.max(elapsedMillis, 1), sortedErrors);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package net.javaguide.springboottesting.bulkimport;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import net.javaguide.springboottesting.directory.EmployeeDirectory;
+import net.javaguide.springboottesting.stream.EmployeeChangeBroadcaster;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+
+@Configuration
+@EnableConfigurationProperties(ImportProperties.class)
+public class ImportConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor importExecutor(ImportProperties properties, MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("import-");
+        executor.setCorePoolSize(properties.getThreads());
+        executor.setMaxPoolSize(properties.getThreads());
+        // queued chunks are bounded per import by EmployeeCsvImporter
+        executor.initialize();
+        ExecutorServiceMetrics.monitor(meterRegistry, executor.getThreadPoolExecutor(), "employee.import",
+                Collections.emptyList());
+        return executor;
+    }
+
+    @Bean
+    public EmployeeCsvImporter employeeCsvImporter(JdbcTemplate jdbcTemplate,
+                                                   ThreadPoolTaskExecutor importExecutor,
+                                                   PlatformTransactionManager transactionManager,
+                                                   CacheManager cacheManager,
+                                                   EntityManagerFactory entityManagerFactory,
+                                                   EmployeeDirectory employeeDirectory,
+                                                   EmployeeChangeBroadcaster employeeChangeBroadcaster,
+                                                   ImportProperties properties,
+                                                   MeterRegistry meterRegistry) {
+        return new EmployeeCsvImporter(jdbcTemplate, importExecutor, new TransactionTemplate(transactionManager),
+                cacheManager, entityManagerFactory, employeeDirectory, employeeChangeBroadcaster, properties, meterRegistry);
+    }
+}
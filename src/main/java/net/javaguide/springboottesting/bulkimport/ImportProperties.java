@@ -0,0 +1,26 @@
+package net.javaguide.springboottesting.bulkimport;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.import")
+public class ImportProperties {
+
+    // workers parsing, validating and upserting chunks, each holds one connection while upserting
+    private int threads = 4;
+
+    // rows per chunk, one chunk is upserted with a single JDBC batch
+    private int batchSize = 1000;
+
+    // chunks read ahead of the workers, bounds the memory of an import whatever the file size
+    private int maxPendingChunks = 8;
+
+    // row errors returned in the report, further errors are only counted
+    private int maxReportedErrors = 100;
+
+    // a progress line is logged every N rows
+    private long progressInterval = 100_000;
+}
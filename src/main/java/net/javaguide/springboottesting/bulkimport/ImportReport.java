@@ -0,0 +1,19 @@
+package net.javaguide.springboottesting.bulkimport;
+
+import java.util.List;
+
+/**
+ * Outcome of a CSV import. {@code duplicates} are rows whose email appears again later in the same chunk, only the
+ * last one is upserted.
+ */
+public record ImportReport(long rowsRead,
+                           long rowsUpserted,
+                           long rowsRejected,
+                           long duplicates,
+                           long elapsedMillis,
+                           long rowsPerSecond,
+                           List<RowError> errors) {
+
+    public record RowError(long line, String message) {
+    }
+}
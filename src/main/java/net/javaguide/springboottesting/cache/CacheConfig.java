@@ -0,0 +1,49 @@
+package net.javaguide.springboottesting.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+// cache advice wraps the transaction advice : a cache hit doesn't open a transaction and evictions run after commit
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String EMPLOYEES_CACHE = "employees";
+
+    // embedded shared tier, replace this bean with a distributed CacheManager (Redis, Hazelcast, ...) in production
+    @Bean
+    public CacheManager sharedCacheManager() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+        cacheManager.setStoreByValue(true);
+        return cacheManager;
+    }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus() {
+        return new InProcessCacheInvalidationBus();
+    }
+
+    @Bean
+    @Primary
+    public CacheManager cacheManager(@Qualifier("sharedCacheManager") CacheManager sharedCacheManager,
+                                     CacheInvalidationBus cacheInvalidationBus,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${employee.cache.near.maximum-size:10000}") long maximumSize,
+                                     @Value("${employee.cache.near.expire-after-write:60s}") Duration expireAfterWrite) {
+        Caffeine<Object, Object> localSpec = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite);
+        return new NearCacheManager(sharedCacheManager, cacheInvalidationBus, localSpec, meterRegistry);
+    }
+}
@@ -0,0 +1,13 @@
+package net.javaguide.springboottesting.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts near-cache invalidations to every node (e.g. Redis pub/sub, Hazelcast topic, Kafka).
+ */
+public interface CacheInvalidationBus {
+
+    void publish(CacheInvalidationMessage message);
+
+    void subscribe(Consumer<CacheInvalidationMessage> listener);
+}
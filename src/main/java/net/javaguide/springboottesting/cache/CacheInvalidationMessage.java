@@ -0,0 +1,9 @@
+package net.javaguide.springboottesting.cache;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Tells the other nodes to drop a key (or, with a null key, everything) from their near-cache.
+ */
+public record CacheInvalidationMessage(String originNodeId, String cacheName, @Nullable Object key) {
+}
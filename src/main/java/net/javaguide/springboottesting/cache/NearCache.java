@@ -0,0 +1,163 @@
+package net.javaguide.springboottesting.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.core.serializer.support.SerializationDelegate;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Callable;
+
+/**
+ * Two-tier cache : a local (per node) Caffeine near-cache in front of a shared cache.
+ * <p>
+ * Puts populate both tiers without telling the other nodes : they are the read-miss fills of {@code @Cacheable}, and
+ * the writes of the employees evict instead. Evictions and clears go to the shared cache and broadcast an
+ * invalidation so that the other nodes drop their near copy. The near-cache stores values serialized, so every caller gets its own copy of the cached entity.
+ */
+public class NearCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final String nodeId;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, byte[]> local;
+    private final Cache shared;
+    private final CacheInvalidationBus invalidationBus;
+    private final SerializationDelegate serialization;
+
+    private final Counter nearHits;
+    private final Counter nearMisses;
+    private final Counter sharedHits;
+    private final Counter sharedMisses;
+
+    public NearCache(String name,
+                     String nodeId,
+                     com.github.benmanes.caffeine.cache.Cache<Object, byte[]> local,
+                     Cache shared,
+                     CacheInvalidationBus invalidationBus,
+                     MeterRegistry meterRegistry) {
+        super(false);
+        this.name = name;
+        this.nodeId = nodeId;
+        this.local = local;
+        this.shared = shared;
+        this.invalidationBus = invalidationBus;
+        this.serialization = new SerializationDelegate(NearCache.class.getClassLoader());
+
+        this.nearHits = counter(meterRegistry, "near", "hit");
+        this.nearMisses = counter(meterRegistry, "near", "miss");
+        this.sharedHits = counter(meterRegistry, "shared", "hit");
+        this.sharedMisses = counter(meterRegistry, "shared", "miss");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    @Nullable
+    protected Object lookup(Object key) {
+        byte[] bytes = local.getIfPresent(key);
+        if (bytes != null) {
+            nearHits.increment();
+            return deserialize(bytes);
+        }
+        nearMisses.increment();
+
+        ValueWrapper wrapper = shared.get(key);
+        if (wrapper == null || wrapper.get() == null) {
+            sharedMisses.increment();
+            return null;
+        }
+        sharedHits.increment();
+
+        Object value = wrapper.get();
+        local.put(key, serialize(value));
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) {
+            return (T) value;
+        }
+        try {
+            T loaded = valueLoader.call();
+            if (loaded != null) {
+                put(key, loaded);
+            }
+            return loaded;
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        shared.put(key, value);
+        local.put(key, serialize(value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        shared.evict(key);
+        local.invalidate(key);
+        invalidationBus.publish(new CacheInvalidationMessage(nodeId, name, key));
+    }
+
+    @Override
+    public void clear() {
+        shared.clear();
+        local.invalidateAll();
+        invalidationBus.publish(new CacheInvalidationMessage(nodeId, name, null));
+    }
+
+    /**
+     * Applies an invalidation received from another node, the shared cache is left untouched.
+     */
+    void invalidateLocal(@Nullable Object key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("employee.cache.gets")
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return serialization.serializeToByteArray(value);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Object deserialize(byte[] bytes) {
+        try {
+            return serialization.deserializeFromByteArray(bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package net.javaguide.springboottesting.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates a {@link NearCache} per cache name on top of the pluggable shared {@link CacheManager}.
+ * Puts and evictions are deferred until the surrounding transaction commits.
+ */
+public class NearCacheManager extends AbstractTransactionSupportingCacheManager {
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, NearCache> nearCaches = new ConcurrentHashMap<>();
+
+    private final CacheManager sharedCacheManager;
+    private final CacheInvalidationBus invalidationBus;
+    private final Caffeine<Object, Object> localSpec;
+    private final MeterRegistry meterRegistry;
+
+    public NearCacheManager(CacheManager sharedCacheManager,
+                            CacheInvalidationBus invalidationBus,
+                            Caffeine<Object, Object> localSpec,
+                            MeterRegistry meterRegistry) {
+        this.sharedCacheManager = sharedCacheManager;
+        this.invalidationBus = invalidationBus;
+        this.localSpec = localSpec;
+        this.meterRegistry = meterRegistry;
+        setTransactionAware(true);
+
+        invalidationBus.subscribe(message -> {
+            if (nodeId.equals(message.originNodeId())) {
+                return;
+            }
+            NearCache nearCache = nearCaches.get(message.cacheName());
+            if (nearCache != null) {
+                nearCache.invalidateLocal(message.key());
+            }
+        });
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        Cache shared = sharedCacheManager.getCache(name);
+        if (shared == null) {
+            return null;
+        }
+        return nearCaches.computeIfAbsent(name, cacheName ->
+                new NearCache(cacheName, nodeId, localSpec.build(), shared, invalidationBus, meterRegistry));
+    }
+}
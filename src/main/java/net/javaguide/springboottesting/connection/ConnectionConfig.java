@@ -0,0 +1,64 @@
+package net.javaguide.springboottesting.connection;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class ConnectionConfig implements WebMvcConfigurer {
+
+    // Connections are taken from the pool at the first statement instead of at the start of the transaction : a
+    // transaction served from the caches or the directory doesn't take one, and the read-only flag and isolation
+    // level are only sent to MySQL when a statement needs them
+    @Bean
+    public static BeanPostProcessor connectionHoldTimeDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof LazyConnectionDataSourceProxy)
+                        && !(bean instanceof ConnectionHoldTimeDataSource)) {
+                    return new LazyConnectionDataSourceProxy(
+                            new ConnectionHoldTimeDataSource(dataSource, meterRegistry.getObject()));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AsyncHandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (handler instanceof HandlerMethod handlerMethod) {
+                    ConnectionHoldTimeDataSource.setEndpoint(handlerMethod.getBeanType().getSimpleName() + "."
+                            + handlerMethod.getMethod().getName());
+                }
+                return true;
+            }
+
+            @Override
+            public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                                       Object handler) {
+                ConnectionHoldTimeDataSource.clearEndpoint();
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                        Exception ex) {
+                ConnectionHoldTimeDataSource.clearEndpoint();
+            }
+        });
+    }
+}
@@ -0,0 +1,116 @@
+package net.javaguide.springboottesting.connection;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times each connection from its checkout to its close (return to the pool) as {@code employee.connection.hold},
+ * tagged with the endpoint (controller and method names) of the request that took it, or {@code none} outside
+ * requests.
+ */
+public class ConnectionHoldTimeDataSource extends DelegatingDataSource {
+
+    public static final String NO_ENDPOINT = "none";
+
+    private static final ThreadLocal<String> ENDPOINT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public ConnectionHoldTimeDataSource(DataSource targetDataSource, MeterRegistry meterRegistry) {
+        super(targetDataSource);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static void setEndpoint(String endpoint) {
+        ENDPOINT.set(endpoint);
+    }
+
+    public static void clearEndpoint() {
+        ENDPOINT.remove();
+    }
+
+    // carries the endpoint of the submitting thread over to the thread running the task
+    public static Runnable withCurrentEndpoint(Runnable task) {
+        String endpoint = ENDPOINT.get();
+        if (endpoint == null) {
+            return task;
+        }
+        return () -> {
+            setEndpoint(endpoint);
+            try {
+                task.run();
+            } finally {
+                clearEndpoint();
+            }
+        };
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timed(super.getConnection(username, password));
+    }
+
+    private Connection timed(Connection connection) {
+        String endpoint = ENDPOINT.get();
+        Timer timer = timers.computeIfAbsent(endpoint != null ? endpoint : NO_ENDPOINT, this::holdTimer);
+        long start = System.nanoTime();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection, timer, start));
+    }
+
+    private Timer holdTimer(String endpoint) {
+        return Timer.builder("employee.connection.hold")
+                .description("Time a pooled connection is held, from checkout to close")
+                .tag("endpoint", endpoint)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final Timer timer;
+        private final long start;
+        private boolean closed;
+
+        ConnectionHandler(Connection target, Timer timer, long start) {
+            this.target = target;
+            this.timer = timer;
+            this.start = start;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("close") && !closed) {
+                closed = true;
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (method.getName().equals("unwrap") && ((Class<?>) args[0]).isInstance(target)) {
+                return target;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package net.javaguide.springboottesting.controller;
+
+import net.javaguide.springboottesting.aggregate.EmployeeAggregator;
+import net.javaguide.springboottesting.aggregate.EmployeeCount;
+import net.javaguide.springboottesting.snapshot.EmployeeSnapshotStore;
+import net.javaguide.springboottesting.snapshot.EmployeeStats;
+import net.javaguide.springboottesting.snapshot.SnapshotColumn;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Optional;
+
+/**
+ * Aggregations over all the employees. Stats are served from the columnar snapshot (as fresh as its last rebuild,
+ * see {@code asOf}) when there is one, and computed by the parallel range queries of {@link EmployeeAggregator}
+ * otherwise or when {@code fresh=true}.
+ */
+@RestController
+@RequestMapping("/api/employees")
+public class EmployeeAggregateController {
+
+    private EmployeeAggregator employeeAggregator;
+
+    private ObjectProvider<EmployeeSnapshotStore> employeeSnapshotStore;
+
+    public EmployeeAggregateController(EmployeeAggregator employeeAggregator,
+                                       ObjectProvider<EmployeeSnapshotStore> employeeSnapshotStore) {
+        this.employeeAggregator = employeeAggregator;
+        this.employeeSnapshotStore = employeeSnapshotStore;
+    }
+
+    @GetMapping("count")
+    public EmployeeCount getCount() {
+        return new EmployeeCount(employeeAggregator.count());
+    }
+
+    @GetMapping("stats")
+    public EmployeeStats getStats(@RequestParam("groupBy") String groupBy,
+                                  @RequestParam(value = "limit", defaultValue = "100") int limit,
+                                  @RequestParam(value = "fresh", defaultValue = "false") boolean fresh) {
+        SnapshotColumn column = SnapshotColumn.fromGroupBy(groupBy)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "groupBy must be one of emailDomain, lastName"));
+        EmployeeSnapshotStore snapshotStore = employeeSnapshotStore.getIfAvailable();
+        Optional<EmployeeStats> snapshotStats = fresh || snapshotStore == null
+                ? Optional.empty()
+                : snapshotStore.stats(column, limit);
+        return snapshotStats.orElseGet(() -> employeeAggregator.stats(column, limit));
+    }
+}
@@ -0,0 +1,61 @@
+package net.javaguide.springboottesting.controller;
+
+import net.javaguide.springboottesting.idempotency.IdempotencyService;
+import net.javaguide.springboottesting.model.Employee;
+import net.javaguide.springboottesting.service.EmployeeService;
+import net.javaguide.springboottesting.write.EmployeeWriteBatcher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Opt-in (employee.write.async.enabled=true) writes through the group commit queue :
+ * the response is sent when the batch containing the write is committed.
+ */
+@RestController
+@RequestMapping("/api/employees/async")
+@ConditionalOnProperty(name = "employee.write.async.enabled", havingValue = "true")
+public class EmployeeAsyncWriteController {
+
+    private EmployeeService employeeService;
+
+    private EmployeeWriteBatcher employeeWriteBatcher;
+
+    private IdempotencyService idempotencyService;
+
+    public EmployeeAsyncWriteController(EmployeeService employeeService, EmployeeWriteBatcher employeeWriteBatcher,
+                                        IdempotencyService idempotencyService) {
+        this.employeeService = employeeService;
+        this.employeeWriteBatcher = employeeWriteBatcher;
+        this.idempotencyService = idempotencyService;
+    }
+
+    // a retry with the same Idempotency-Key gets the original response once the batch of the first one is committed
+    @PostMapping
+    public CompletableFuture<ResponseEntity<?>> createEmployee(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody Employee employee) {
+        return idempotencyService.executeAsync(idempotencyKey, employee, () -> employeeWriteBatcher.save(employee)
+                .thenApply(savedEmployee -> new ResponseEntity<>(savedEmployee, HttpStatus.CREATED)));
+    }
+
+    @PutMapping("{id}")
+    public CompletableFuture<ResponseEntity<Employee>> updateEmployee(@PathVariable("id") Long employeeId,
+                                                                      @RequestBody Employee employee) {
+        return employeeService.getEmployeeById(employeeId)
+                .map(savedEmployee -> {
+
+                    savedEmployee.setFirstName(employee.getFirstName());
+                    savedEmployee.setLastName(employee.getLastName());
+                    savedEmployee.setEmail(employee.getEmail());
+
+                    return employeeWriteBatcher.update(savedEmployee)
+                            .thenApply(updatedEmployee -> new ResponseEntity<>(updatedEmployee, HttpStatus.OK));
+
+                })
+                .orElseGet(() -> CompletableFuture.completedFuture(ResponseEntity.notFound().build()));
+    }
+}
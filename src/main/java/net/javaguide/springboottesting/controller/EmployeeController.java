@@ -1,12 +1,19 @@
 package net.javaguide.springboottesting.controller;
 
+import net.javaguide.springboottesting.batchupdate.BatchUpdateProperties;
+import net.javaguide.springboottesting.batchupdate.BatchUpdateReport;
+import net.javaguide.springboottesting.idempotency.IdempotencyService;
 import net.javaguide.springboottesting.model.Employee;
+import net.javaguide.springboottesting.service.AsyncEmployeeService;
 import net.javaguide.springboottesting.service.EmployeeService;
+import net.javaguide.springboottesting.warmup.EmployeeAccessTracker;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/employees")
@@ -14,28 +21,60 @@ public class EmployeeController {
 
     private EmployeeService employeeService;
 
-    public EmployeeController(EmployeeService employeeService) {
+    private EmployeeAccessTracker employeeAccessTracker;
+
+    private AsyncEmployeeService asyncEmployeeService;
+
+    private IdempotencyService idempotencyService;
+
+    private BatchUpdateProperties batchUpdateProperties;
+
+    public EmployeeController(EmployeeService employeeService,
+                              EmployeeAccessTracker employeeAccessTracker,
+                              AsyncEmployeeService asyncEmployeeService,
+                              IdempotencyService idempotencyService,
+                              BatchUpdateProperties batchUpdateProperties) {
         this.employeeService = employeeService;
+        this.employeeAccessTracker = employeeAccessTracker;
+        this.asyncEmployeeService = asyncEmployeeService;
+        this.idempotencyService = idempotencyService;
+        this.batchUpdateProperties = batchUpdateProperties;
     }
 
+    // a retry with the same Idempotency-Key gets the original response, the employee isn't saved again
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public Employee createEmployee(@RequestBody Employee employee) {
-        return employeeService.saveEmployee(employee);
+    public ResponseEntity<?> createEmployee(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody Employee employee) {
+        return idempotencyService.execute(idempotencyKey, employee,
+                () -> new ResponseEntity<>(employeeService.saveEmployee(employee), HttpStatus.CREATED));
     }
 
+    // full scan : runs in the scan bulkhead so that it can't take the threads and connections of the lookups
     @GetMapping
-    public List<Employee> getAllEmployees() {
-        return employeeService.getAllEmployees();
+    public CompletableFuture<List<Employee>> getAllEmployees() {
+        return asyncEmployeeService.getAllEmployees();
     }
 
-    @GetMapping("{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") Long employeeId) {
-        return employeeService.getEmployeeById(employeeId)
+    @GetMapping(params = "email")
+    public ResponseEntity<Employee> getEmployeeByEmail(@RequestParam("email") String email) {
+        return employeeService.getEmployeeByEmail(email)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // the servlet thread is released while the lookup waits on the database
+    @GetMapping("{id}")
+    public CompletableFuture<ResponseEntity<Employee>> getEmployeeById(@PathVariable("id") Long employeeId) {
+        return asyncEmployeeService.getEmployeeById(employeeId)
+                .thenApply(employee -> employee
+                        .map(found -> {
+                            employeeAccessTracker.recordAccess(employeeId);
+                            return ResponseEntity.ok(found);
+                        })
+                        .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
     @PutMapping("{id}")
     public ResponseEntity<Employee> updateEmployee(@PathVariable("id") Long employeeId,
                                                    @RequestBody Employee employee) {
@@ -53,6 +92,20 @@ public class EmployeeController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    // all or nothing : an unknown id fails the whole batch with 404. A retry with the same Idempotency-Key gets the
+    // report of the first execution
+    @PutMapping("batch")
+    public ResponseEntity<?> updateEmployees(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody List<Employee> employees) {
+        if (employees.size() > batchUpdateProperties.getMaxSize()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "At most " + batchUpdateProperties.getMaxSize() + " employees per batch");
+        }
+        return idempotencyService.execute(idempotencyKey, employees,
+                () -> ResponseEntity.ok(employeeService.updateEmployees(employees)));
+    }
+
     @DeleteMapping("{id}")
     public ResponseEntity<String> deleteEmployee(@PathVariable("id") Long employeeId) {
         employeeService.deleteEmployee(employeeId);
@@ -0,0 +1,33 @@
+package net.javaguide.springboottesting.controller;
+
+import net.javaguide.springboottesting.bulkimport.EmployeeCsvImporter;
+import net.javaguide.springboottesting.bulkimport.ImportReport;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/employees/import")
+public class EmployeeImportController {
+
+    private EmployeeCsvImporter employeeCsvImporter;
+
+    public EmployeeImportController(EmployeeCsvImporter employeeCsvImporter) {
+        this.employeeCsvImporter = employeeCsvImporter;
+    }
+
+    // the multipart file is spooled to disk by the container, it is streamed from there
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportReport> importEmployees(@RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream csv = file.getInputStream()) {
+            return ResponseEntity.ok(employeeCsvImporter.importCsv(csv));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package net.javaguide.springboottesting.controller;
+
+import net.javaguide.springboottesting.stream.EmployeeChangeBroadcaster;
+import net.javaguide.springboottesting.stream.StreamProperties;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/employees/stream")
+public class EmployeeStreamController {
+
+    private EmployeeChangeBroadcaster employeeChangeBroadcaster;
+
+    private StreamProperties streamProperties;
+
+    public EmployeeStreamController(EmployeeChangeBroadcaster employeeChangeBroadcaster,
+                                    StreamProperties streamProperties) {
+        this.employeeChangeBroadcaster = employeeChangeBroadcaster;
+        this.streamProperties = streamProperties;
+    }
+
+    // EventSource sends the id of the last event it received when it reconnects
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEmployees(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter(streamProperties.getTimeout().toMillis());
+        employeeChangeBroadcaster.subscribe(emitter, lastEventId);
+        return emitter;
+    }
+}
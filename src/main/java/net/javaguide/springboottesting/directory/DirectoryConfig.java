@@ -0,0 +1,76 @@
+package net.javaguide.springboottesting.directory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(DirectoryProperties.class)
+public class DirectoryConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DirectoryConfig.class);
+
+    @Bean
+    public EmployeeDirectory employeeDirectory(DirectoryProperties properties, DataSource dataSource,
+                                               MeterRegistry meterRegistry) {
+        if (!properties.isEnabled()) {
+            return EmployeeDirectory.DISABLED;
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        if (isMySql(dataSource)) {
+            // Connector/J streams the rows instead of loading the whole result set, other drivers reject the value
+            jdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        }
+        return new OffHeapEmployeeDirectory(jdbcTemplate, properties, meterRegistry);
+    }
+
+    private static boolean isMySql(DataSource dataSource) {
+        try {
+            String productName = JdbcUtils.extractDatabaseMetaData(dataSource,
+                    DatabaseMetaData::getDatabaseProductName);
+            return DatabaseDriver.fromProductName(productName) == DatabaseDriver.MYSQL;
+        } catch (MetaDataAccessException ex) {
+            log.warn("Database of the employee directory not detected, rows are not streamed", ex);
+            return false;
+        }
+    }
+
+    // loaded before readiness is reported, lookups fall back to the database until then
+    @Bean
+    public ApplicationRunner employeeDirectoryLoader(EmployeeDirectory employeeDirectory) {
+        return args -> {
+            try {
+                employeeDirectory.reload();
+            } catch (DataAccessException ex) {
+                log.warn("Employee directory not loaded, lookups are served by the database", ex);
+            }
+        };
+    }
+
+    @Bean
+    public SchedulingConfigurer employeeDirectoryReload(EmployeeDirectory employeeDirectory,
+                                                        DirectoryProperties properties) {
+        return registrar -> {
+            if (employeeDirectory.isEnabled()) {
+                registrar.addFixedDelayTask(new FixedDelayTask(employeeDirectory::reload,
+                        properties.getReloadInterval(), properties.getReloadInterval()));
+            }
+        };
+    }
+}
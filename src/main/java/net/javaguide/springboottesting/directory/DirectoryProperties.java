@@ -0,0 +1,26 @@
+package net.javaguide.springboottesting.directory;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.directory")
+public class DirectoryProperties {
+
+    private boolean enabled = false;
+
+    // size of the direct buffers the records are packed in
+    private DataSize segmentSize = DataSize.ofMegabytes(16);
+
+    // presizes the indexes, they grow past it
+    private int expectedSize = 100_000;
+
+    // full reload from the database : picks up the writes that don't go through EmployeeService (CSV import,
+    // async write batches, other instances) and reclaims the space of updated records
+    private Duration reloadInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,38 @@
+package net.javaguide.springboottesting.directory;
+
+import net.javaguide.springboottesting.model.Employee;
+
+import java.util.Optional;
+
+/**
+ * In-memory read replica of the employees table. An empty result is a miss, not a proof that the employee doesn't
+ * exist : callers fall back to the database.
+ */
+public interface EmployeeDirectory {
+
+    EmployeeDirectory DISABLED = new EmployeeDirectory() {
+    };
+
+    default boolean isEnabled() {
+        return false;
+    }
+
+    default Optional<Employee> findById(long id) {
+        return Optional.empty();
+    }
+
+    default Optional<Employee> findByEmail(String email) {
+        return Optional.empty();
+    }
+
+    // applied when the current transaction commits
+    default void put(Employee employee) {
+    }
+
+    // applied when the current transaction commits
+    default void remove(long id) {
+    }
+
+    default void reload() {
+    }
+}
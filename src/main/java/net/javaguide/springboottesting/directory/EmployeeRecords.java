@@ -0,0 +1,154 @@
+package net.javaguide.springboottesting.directory;
+
+import net.javaguide.springboottesting.model.Employee;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Employees packed in direct (off-heap) buffer segments : id, then first name, last name and email as an unsigned
+ * short length followed by the UTF-8 bytes. Records are indexed by id and by a 64 bit hash of the lower case email,
+ * the offset of a record being its segment index (high 32 bits) and its position in the segment.
+ * <p>
+ * Records are append-only : an update appends a new record and the old one becomes garbage, reclaimed when the
+ * directory is reloaded. Not thread-safe.
+ */
+class EmployeeRecords {
+
+    private final int segmentSize;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private final LongLongHashMap byId;
+    private final LongLongHashMap byEmailHash;
+
+    private long usedBytes;
+    private long garbageBytes;
+
+    EmployeeRecords(int segmentSize, int expectedSize) {
+        this.segmentSize = segmentSize;
+        this.byId = new LongLongHashMap(expectedSize);
+        this.byEmailHash = new LongLongHashMap(expectedSize);
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    long offHeapBytes() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    long usedBytes() {
+        return usedBytes;
+    }
+
+    long garbageBytes() {
+        return garbageBytes;
+    }
+
+    long heapBytes() {
+        return byId.heapBytes() + byEmailHash.heapBytes();
+    }
+
+    Employee findById(long id) {
+        long offset = byId.get(id);
+        return offset == LongLongHashMap.NO_VALUE ? null : read(offset);
+    }
+
+    // null when the email is unknown, or when its hash collides with the one of another email
+    Employee findByEmail(String email) {
+        long offset = byEmailHash.get(emailHash(email));
+        if (offset == LongLongHashMap.NO_VALUE) {
+            return null;
+        }
+        Employee employee = read(offset);
+        return employee.getEmail().equalsIgnoreCase(email) ? employee : null;
+    }
+
+    void put(Employee employee) {
+        remove(employee.getId());
+        byte[] firstName = employee.getFirstName().getBytes(StandardCharsets.UTF_8);
+        byte[] lastName = employee.getLastName().getBytes(StandardCharsets.UTF_8);
+        byte[] email = employee.getEmail().getBytes(StandardCharsets.UTF_8);
+        int length = Long.BYTES + 3 * Short.BYTES + firstName.length + lastName.length + email.length;
+        if (length > segmentSize) {
+            throw new IllegalArgumentException("Employee " + employee.getId() + " doesn't fit in a segment");
+        }
+
+        ByteBuffer segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.remaining() < length) {
+            segment = ByteBuffer.allocateDirect(segmentSize);
+            segments.add(segment);
+        }
+        long offset = ((long) (segments.size() - 1) << 32) | segment.position();
+        segment.putLong(employee.getId());
+        putString(segment, firstName);
+        putString(segment, lastName);
+        putString(segment, email);
+        usedBytes += length;
+
+        byId.put(employee.getId(), offset);
+        byEmailHash.put(emailHash(employee.getEmail()), offset);
+    }
+
+    void remove(long id) {
+        long offset = byId.remove(id);
+        if (offset == LongLongHashMap.NO_VALUE) {
+            return;
+        }
+        Employee removed = read(offset);
+        long emailHash = emailHash(removed.getEmail());
+        // another record may own the hash (collision), only unmap it if it points to the removed record
+        if (byEmailHash.get(emailHash) == offset) {
+            byEmailHash.remove(emailHash);
+        }
+        garbageBytes += Long.BYTES + 3 * Short.BYTES + utf8Length(removed.getFirstName())
+                + utf8Length(removed.getLastName()) + utf8Length(removed.getEmail());
+    }
+
+    private Employee read(long offset) {
+        ByteBuffer segment = segments.get((int) (offset >>> 32));
+        int position = (int) offset;
+        long id = segment.getLong(position);
+        position += Long.BYTES;
+        String firstName = getString(segment, position);
+        position += Short.BYTES + Short.toUnsignedInt(segment.getShort(position));
+        String lastName = getString(segment, position);
+        position += Short.BYTES + Short.toUnsignedInt(segment.getShort(position));
+        String email = getString(segment, position);
+        return Employee.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .build();
+    }
+
+    private static void putString(ByteBuffer segment, byte[] value) {
+        segment.putShort((short) value.length);
+        segment.put(value);
+    }
+
+    private static String getString(ByteBuffer segment, int position) {
+        byte[] bytes = new byte[Short.toUnsignedInt(segment.getShort(position))];
+        segment.get(position + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    // FNV-1a over the lower case email (the unique index is case insensitive), never 0 (reserved key)
+    static long emailHash(String email) {
+        String normalized = email.toLowerCase(Locale.ROOT);
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < normalized.length(); i++) {
+            hash ^= normalized.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+}
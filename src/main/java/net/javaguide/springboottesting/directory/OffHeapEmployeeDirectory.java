@@ -0,0 +1,167 @@
+package net.javaguide.springboottesting.directory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.javaguide.springboottesting.model.Employee;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * {@link EmployeeDirectory} holding the employees in {@link EmployeeRecords} : 54 to 107 bytes of heap per employee
+ * for the two indexes (depending on their load factor), the names and emails being off-heap. A
+ * {@code HashMap<Long, Employee>} of entities takes about 250 bytes per employee (entity, three Strings and their
+ * byte arrays, map node and boxed key). Compare employee.directory.heap.bytes with employee.directory.size.
+ * Loaded at startup and on every {@code employee.directory.reload-interval}, kept fresh in between by the writes of
+ * EmployeeService and EmployeeWriteBatcher, reloaded after a CSV import. Lookups take a read lock, writes and the swap of a reload take the write lock.
+ */
+public class OffHeapEmployeeDirectory implements EmployeeDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(OffHeapEmployeeDirectory.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DirectoryProperties properties;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private EmployeeRecords records;
+    // writes committed while a reload reads the table, replayed on the reloaded records
+    private List<Consumer<EmployeeRecords>> writesDuringReload;
+
+    public OffHeapEmployeeDirectory(JdbcTemplate jdbcTemplate, DirectoryProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.records = newRecords();
+        gauge(meterRegistry, "employee.directory.size", EmployeeRecords::size);
+        gauge(meterRegistry, "employee.directory.heap.bytes", EmployeeRecords::heapBytes);
+        gauge(meterRegistry, "employee.directory.offheap.bytes", EmployeeRecords::offHeapBytes);
+        gauge(meterRegistry, "employee.directory.used.bytes", EmployeeRecords::usedBytes);
+        gauge(meterRegistry, "employee.directory.garbage.bytes", EmployeeRecords::garbageBytes);
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String name, ToDoubleFunction<EmployeeRecords> value) {
+        Gauge.builder(name, this, directory -> directory.read(value::applyAsDouble))
+                .register(meterRegistry);
+    }
+
+    private EmployeeRecords newRecords() {
+        return new EmployeeRecords((int) properties.getSegmentSize().toBytes(), properties.getExpectedSize());
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public Optional<Employee> findById(long id) {
+        return Optional.ofNullable(read(current -> current.findById(id)));
+    }
+
+    @Override
+    public Optional<Employee> findByEmail(String email) {
+        return Optional.ofNullable(read(current -> current.findByEmail(email)));
+    }
+
+    private <T> T read(Function<EmployeeRecords, T> lookup) {
+        lock.readLock().lock();
+        try {
+            return lookup.apply(records);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(Employee employee) {
+        // copied now, the entity may still be modified before the commit
+        Employee copy = Employee.builder()
+                .id(employee.getId())
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .build();
+        afterCommit(current -> current.put(copy));
+    }
+
+    @Override
+    public void remove(long id) {
+        afterCommit(current -> current.remove(id));
+    }
+
+    private void afterCommit(Consumer<EmployeeRecords> write) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(write);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                write(write);
+            }
+        });
+    }
+
+    private void write(Consumer<EmployeeRecords> write) {
+        lock.writeLock().lock();
+        try {
+            write.accept(records);
+            if (writesDuringReload != null) {
+                writesDuringReload.add(write);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public synchronized void reload() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            writesDuringReload = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        EmployeeRecords reloaded = newRecords();
+        boolean loaded = false;
+        try {
+            jdbcTemplate.query("SELECT id, first_name, last_name, email FROM employees", rs -> {
+                reloaded.put(Employee.builder()
+                        .id(rs.getLong("id"))
+                        .firstName(rs.getString("first_name"))
+                        .lastName(rs.getString("last_name"))
+                        .email(rs.getString("email"))
+                        .build());
+            });
+            loaded = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    writesDuringReload.forEach(write -> write.accept(reloaded));
+                    // the segments of the previous records are freed by the GC (direct buffer cleaners)
+                    records = reloaded;
+                }
+                writesDuringReload = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Employee directory loaded in {} ms : {} employees, {} bytes of heap, {} bytes off-heap",
+                (System.nanoTime() - start) / 1_000_000, reloaded.size(), reloaded.heapBytes(),
+                reloaded.usedBytes());
+    }
+}
@@ -0,0 +1,29 @@
+package net.javaguide.springboottesting.exception;
+
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.Locale;
+
+/**
+ * Recognizes a violation of the unique email index, however it surfaces : translated by Spring
+ * (DataIntegrityViolationException), or as a PersistenceException from a flush of the EntityManager.
+ */
+public final class EmailConstraint {
+
+    public static final String INDEX = "ux_employees_email";
+
+    private EmailConstraint() {
+    }
+
+    // MySQL names the key "employees.ux_employees_email"
+    public static boolean isViolatedBy(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).endsWith(INDEX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
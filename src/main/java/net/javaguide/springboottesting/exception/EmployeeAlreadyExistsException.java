@@ -0,0 +1,19 @@
+package net.javaguide.springboottesting.exception;
+
+/**
+ * Duplicate email on create. Thrown for every duplicate of a bulk import, so it doesn't fill in a stack trace :
+ * it is an expected outcome mapped to 409, not a bug to debug.
+ */
+public class EmployeeAlreadyExistsException extends RuntimeException {
+
+    private final String email;
+
+    public EmployeeAlreadyExistsException(String email) {
+        super("Employee already exist with given email: " + email, null, false, false);
+        this.email = email;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
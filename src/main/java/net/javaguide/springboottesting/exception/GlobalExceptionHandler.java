@@ -0,0 +1,55 @@
+package net.javaguide.springboottesting.exception;
+
+import jakarta.persistence.PersistenceException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.net.URI;
+
+/**
+ * Maps the application exceptions to RFC 7807 problem responses (application/problem+json).
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(EmployeeAlreadyExistsException.class)
+    public ProblemDetail handleEmployeeAlreadyExists(EmployeeAlreadyExistsException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, ex.getMessage());
+        problem.setType(URI.create("/problems/employee-already-exists"));
+        problem.setTitle("Employee already exists");
+        problem.setProperty("email", ex.getEmail());
+        return problem;
+    }
+
+    // the unique email index rejected a write the service didn't check (update, batch update, group commit) or that
+    // raced with another one. Other integrity violations are left to the default handling
+    @ExceptionHandler({DataIntegrityViolationException.class, PersistenceException.class})
+    public ProblemDetail handleIntegrityViolation(RuntimeException ex) {
+        if (!EmailConstraint.isViolatedBy(ex)) {
+            throw ex;
+        }
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+                "Employee already exist with given email");
+        problem.setType(URI.create("/problems/employee-already-exists"));
+        problem.setTitle("Employee already exists");
+        return problem;
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ProblemDetail handleResourceNotFound(ResourceNotFoundException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage());
+        problem.setTitle("Resource not found");
+        return problem;
+    }
+
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ProblemDetail handleQueryTimeout(QueryTimeoutException ex) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        problem.setTitle("Query timed out");
+        return problem;
+    }
+}
@@ -0,0 +1,22 @@
+package net.javaguide.springboottesting.idempotency;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.idempotency")
+public class IdempotencyProperties {
+
+    // how long a response is replayed for the same Idempotency-Key
+    private Duration ttl = Duration.ofHours(24);
+
+    // responses kept in memory in front of the idempotency_keys table
+    private long maxInMemoryKeys = 100_000;
+
+    // a key claimed by an execution that never completed (node crash) can be claimed again after it
+    private Duration claimTimeout = Duration.ofMinutes(1);
+}
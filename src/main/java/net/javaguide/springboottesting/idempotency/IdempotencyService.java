@@ -0,0 +1,180 @@
+package net.javaguide.springboottesting.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import net.javaguide.springboottesting.limit.ClientIdentity;
+import net.javaguide.springboottesting.model.IdempotencyRecord;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Executes a request at most once per Idempotency-Key : the response of the first execution is stored and
+ * replayed to retries of the same request. The key is claimed in the database before the execution, a retry
+ * reaching any node while it is in progress gets a 409.
+ * <p>
+ * Keys are scoped to the client (the identity of the rate limits) : two clients sending the same key each get their
+ * own execution, never the response stored for the other.
+ */
+@Component
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    // length of the idempotency_key column
+    private static final int MAX_STORED_KEY_LENGTH = 255;
+
+    private final IdempotencyStore idempotencyStore;
+    private final ClientIdentity clientIdentity;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyService(IdempotencyStore idempotencyStore, ClientIdentity clientIdentity,
+                              ObjectMapper objectMapper) {
+        this.idempotencyStore = idempotencyStore;
+        this.clientIdentity = clientIdentity;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param idempotencyKey value of the Idempotency-Key header, the action is simply executed when it is null
+     * @param request        request body, a key reused for a different request is rejected with 422
+     */
+    public ResponseEntity<?> execute(String idempotencyKey, Object request, Supplier<? extends ResponseEntity<?>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+
+        String storedKey = storedKey(idempotencyKey);
+        String requestHash = hash(request);
+        Optional<ResponseEntity<?>> replayed = replayOrClaim(storedKey, requestHash);
+        if (replayed.isPresent()) {
+            return replayed.get();
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException ex) {
+            // failures (exceptions) are not stored, the client can retry them
+            idempotencyStore.release(storedKey);
+            throw ex;
+        }
+        store(storedKey, requestHash, response);
+        return response;
+    }
+
+    /**
+     * {@link #execute} for the actions completing asynchronously (group commit) : the response is stored when the
+     * action completes.
+     */
+    public CompletableFuture<ResponseEntity<?>> executeAsync(
+            String idempotencyKey, Object request,
+            Supplier<? extends CompletableFuture<? extends ResponseEntity<?>>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get().thenApply(response -> response);
+        }
+
+        String storedKey = storedKey(idempotencyKey);
+        String requestHash = hash(request);
+        Optional<ResponseEntity<?>> replayed = replayOrClaim(storedKey, requestHash);
+        if (replayed.isPresent()) {
+            return CompletableFuture.completedFuture(replayed.get());
+        }
+
+        CompletableFuture<? extends ResponseEntity<?>> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException ex) {
+            idempotencyStore.release(storedKey);
+            throw ex;
+        }
+        return response.handle((completed, ex) -> {
+            if (ex != null) {
+                idempotencyStore.release(storedKey);
+                throw ex instanceof RuntimeException runtimeException
+                        ? runtimeException : new CompletionException(ex);
+            }
+            store(storedKey, requestHash, completed);
+            return completed;
+        });
+    }
+
+    // resolved on the request thread, before any asynchronous part of the execution
+    private String storedKey(String idempotencyKey) {
+        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes())
+                .getRequest();
+        String storedKey = clientIdentity.of(request) + " " + idempotencyKey;
+        if (storedKey.length() > MAX_STORED_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key is too long");
+        }
+        return storedKey;
+    }
+
+    // the stored response, or empty once the key is claimed for this execution
+    private Optional<ResponseEntity<?>> replayOrClaim(String idempotencyKey, String requestHash) {
+        Optional<IdempotencyRecord> stored = idempotencyStore.find(idempotencyKey);
+        if (stored.isPresent()) {
+            return Optional.of(replay(stored.get(), requestHash));
+        }
+        if (idempotencyStore.claim(idempotencyKey, requestHash)) {
+            return Optional.empty();
+        }
+        // the first request completed between find() and claim()
+        stored = idempotencyStore.find(idempotencyKey);
+        if (stored.isPresent()) {
+            return Optional.of(replay(stored.get(), requestHash));
+        }
+        // a retry arriving, on this node or another, while the first request is still executing
+        throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "A request with the same Idempotency-Key is in progress");
+    }
+
+    private void store(String idempotencyKey, String requestHash, ResponseEntity<?> response) {
+        try {
+            idempotencyStore.save(idempotencyKey, requestHash, response.getStatusCode().value(),
+                    objectMapper.writeValueAsBytes(response.getBody()));
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private ResponseEntity<?> replay(IdempotencyRecord record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request");
+        }
+        try {
+            return ResponseEntity.status(record.getStatusCode())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(objectMapper.readTree(record.getResponseBody()));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package net.javaguide.springboottesting.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.javaguide.springboottesting.model.IdempotencyRecord;
+import net.javaguide.springboottesting.repository.IdempotencyRecordRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Stored responses by Idempotency-Key : a TTL'd in-memory cache in front of the idempotency_keys table,
+ * so that retries hitting the same node are answered without a database round trip.
+ * <p>
+ * A key is claimed in the table (a row with the {@link IdempotencyRecord#IN_PROGRESS} status) before its request is
+ * executed, the primary key lets only one execution run across the nodes.
+ */
+@Component
+public class IdempotencyStore {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final IdempotencyProperties properties;
+    private final Cache<String, IdempotencyRecord> recentRecords;
+
+    public IdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                            IdempotencyProperties properties) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.properties = properties;
+        this.recentRecords = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxInMemoryKeys())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+    }
+
+    // the stored response, empty while the key is unused or its request still in progress
+    public Optional<IdempotencyRecord> find(String idempotencyKey) {
+        IdempotencyRecord record = recentRecords.getIfPresent(idempotencyKey);
+        if (record != null) {
+            return Optional.of(record);
+        }
+        return idempotencyRecordRepository.findById(idempotencyKey)
+                .filter(stored -> stored.getStatusCode() != IdempotencyRecord.IN_PROGRESS)
+                .filter(stored -> stored.getExpiresAt().isAfter(LocalDateTime.now()))
+                .map(stored -> {
+                    recentRecords.put(idempotencyKey, stored);
+                    return stored;
+                });
+    }
+
+    /**
+     * Claims the key for an execution of its request, false when another execution holds it or has completed it.
+     */
+    public boolean claim(String idempotencyKey, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime claimExpiresAt = now.plus(properties.getClaimTimeout());
+        try {
+            idempotencyRecordRepository.insertClaim(idempotencyKey, requestHash, claimExpiresAt);
+            return true;
+        } catch (DataIntegrityViolationException ex) {
+            return idempotencyRecordRepository.reclaimExpired(idempotencyKey, requestHash, claimExpiresAt, now) == 1;
+        }
+    }
+
+    // the execution failed : the key can be retried
+    public void release(String idempotencyKey) {
+        idempotencyRecordRepository.deleteClaim(idempotencyKey);
+    }
+
+    public void save(String idempotencyKey, String requestHash, int statusCode, byte[] responseBody) {
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .idempotencyKey(idempotencyKey)
+                .requestHash(requestHash)
+                .statusCode(statusCode)
+                .responseBody(responseBody)
+                .expiresAt(LocalDateTime.now().plus(properties.getTtl()))
+                .build();
+        idempotencyRecordRepository.save(record);
+        recentRecords.put(idempotencyKey, record);
+    }
+
+    @Scheduled(fixedDelayString = "${employee.idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+    }
+}
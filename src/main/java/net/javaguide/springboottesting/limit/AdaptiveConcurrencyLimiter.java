@@ -0,0 +1,74 @@
+package net.javaguide.springboottesting.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gradient style adaptive concurrency limit.
+ * <p>
+ * The limit follows {@code limit * minRtt / rtt + sqrt(limit)} : it grows while latency stays at the observed
+ * minimum and shrinks as soon as requests start queueing (e.g. waiting for a pooled connection).
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final int MIN_RTT_RESET_SAMPLES = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private long minRttNanos = Long.MAX_VALUE;
+    private int samples;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos) {
+        int inFlightBeforeRelease = inFlight.getAndDecrement();
+        onSample(rttNanos, inFlightBeforeRelease);
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtSample) {
+        // forget the minimum from time to time so that the limit follows a changed baseline
+        if (++samples >= MIN_RTT_RESET_SAMPLES) {
+            samples = 0;
+            minRttNanos = rttNanos;
+        }
+        minRttNanos = Math.min(minRttNanos, Math.max(1, rttNanos));
+
+        double currentLimit = limit;
+        // don't grow while the limit isn't being used
+        if (rttNanos <= minRttNanos && inFlightAtSample < currentLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, (double) minRttNanos / Math.max(1, rttNanos)));
+        double newLimit = currentLimit * gradient + Math.sqrt(currentLimit);
+        newLimit = currentLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,27 @@
+package net.javaguide.springboottesting.limit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Identity of the client of a request, shared by the rate limits and the Idempotency-Key scoping : its API key when
+ * it is one of {@code employee.limits.api-keys}, its remote address otherwise. An unknown API key is ignored, a client
+ * choosing the value would otherwise get a new identity (and a full token bucket) on every request.
+ * <p>
+ * Behind a proxy the remote address is the one of the proxy unless {@code server.forward-headers-strategy} is set.
+ */
+public class ClientIdentity {
+
+    private final LimitProperties properties;
+
+    public ClientIdentity(LimitProperties properties) {
+        this.properties = properties;
+    }
+
+    public String of(HttpServletRequest request) {
+        String apiKey = request.getHeader(properties.getApiKeyHeader());
+        if (apiKey != null && properties.getApiKeys().contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        return "address:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,32 @@
+package net.javaguide.springboottesting.limit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(LimitProperties.class)
+public class LimitConfig implements WebMvcConfigurer {
+
+    private final LimitProperties limitProperties;
+    private final MeterRegistry meterRegistry;
+
+    public LimitConfig(LimitProperties limitProperties, MeterRegistry meterRegistry) {
+        this.limitProperties = limitProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public ClientIdentity clientIdentity() {
+        return new ClientIdentity(limitProperties);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(limitProperties, clientIdentity(), meterRegistry))
+                .addPathPatterns("/api/**");
+    }
+}
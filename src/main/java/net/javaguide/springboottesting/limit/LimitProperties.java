@@ -0,0 +1,60 @@
+package net.javaguide.springboottesting.limit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rate and concurrency limits per endpoint, keyed by the controller method name
+ * (e.g. {@code employee.limits.endpoints.getAllEmployees.rate-per-second=20}), or by the controller and method names
+ * when two controllers have methods of the same name
+ * (e.g. {@code employee.limits.endpoints.[EmployeeAsyncWriteController.createEmployee].rate-per-second=20}).
+ * The limits themselves are always per controller method.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.limits")
+public class LimitProperties {
+
+    private boolean enabled = true;
+
+    // header identifying the client, the remote address is used when it is absent or not one of apiKeys
+    private String apiKeyHeader = "X-API-Key";
+
+    // API keys issued to the clients, other values of the header are ignored
+    private Set<String> apiKeys = new HashSet<>();
+
+    // distinct clients tracked per endpoint
+    private long maxClients = 100_000;
+
+    private Endpoint defaults = new Endpoint();
+
+    private Map<String, Endpoint> endpoints = new HashMap<>();
+
+    public Endpoint forEndpoint(String controller, String method) {
+        Endpoint endpoint = endpoints.get(controller + "." + method);
+        return endpoint != null ? endpoint : endpoints.getOrDefault(method, defaults);
+    }
+
+    @Getter
+    @Setter
+    public static class Endpoint {
+
+        // tokens per second and bucket size per client, 0 disables rate limiting
+        private double ratePerSecond = 100;
+        private double burst = 200;
+
+        // adaptive concurrency limit bounds of the endpoint (all clients)
+        private int initialConcurrency = 20;
+        private int minConcurrency = 2;
+        private int maxConcurrency = 50;
+
+        // false for long lived requests (SSE) : their duration says nothing about the load
+        private boolean concurrencyLimited = true;
+    }
+}
@@ -0,0 +1,131 @@
+package net.javaguide.springboottesting.limit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rejects requests with 429 when the client exceeds its token bucket and with 503 when the endpoint is over its
+ * adaptive concurrency limit, before any work (and any pooled connection) is spent on them.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String LIMITER_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".limiter";
+    private static final String START_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".start";
+
+    private final LimitProperties properties;
+    private final ClientIdentity clientIdentity;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, EndpointLimits> endpointLimits = new ConcurrentHashMap<>();
+
+    public RateLimitInterceptor(LimitProperties properties, ClientIdentity clientIdentity,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.clientIdentity = clientIdentity;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!properties.isEnabled() || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        // second dispatch of an async request, the limits were applied on the first one
+        if (request.getAttribute(LIMITER_ATTRIBUTE) != null) {
+            return true;
+        }
+
+        // per controller : the sync and group commit controllers both have a createEmployee and an updateEmployee
+        EndpointLimits limits = endpointLimits.computeIfAbsent(
+                handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName(),
+                endpoint -> createLimits(endpoint, handlerMethod));
+        long now = System.nanoTime();
+
+        if (limits.config.getRatePerSecond() > 0) {
+            TokenBucket bucket = limits.buckets.get(clientIdentity.of(request),
+                    key -> new TokenBucket(limits.config.getRatePerSecond(), limits.config.getBurst(), now));
+            if (!bucket.tryAcquire(now)) {
+                limits.rateRejections.increment();
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, bucket.secondsUntilNextToken())));
+                return false;
+            }
+        }
+
+        if (!limits.config.isConcurrencyLimited()) {
+            request.setAttribute(LIMITER_ATTRIBUTE, Boolean.FALSE);
+            return true;
+        }
+        if (!limits.concurrency.tryAcquire()) {
+            limits.concurrencyRejections.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return false;
+        }
+
+        request.setAttribute(LIMITER_ATTRIBUTE, limits.concurrency);
+        request.setAttribute(START_ATTRIBUTE, now);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.isAsyncStarted()) {
+            return;
+        }
+        Object limiter = request.getAttribute(LIMITER_ATTRIBUTE);
+        if (limiter instanceof AdaptiveConcurrencyLimiter concurrency) {
+            request.removeAttribute(LIMITER_ATTRIBUTE);
+            concurrency.release(System.nanoTime() - (long) request.getAttribute(START_ATTRIBUTE));
+        }
+    }
+
+    private EndpointLimits createLimits(String endpoint, HandlerMethod handlerMethod) {
+        LimitProperties.Endpoint config = properties.forEndpoint(handlerMethod.getBeanType().getSimpleName(),
+                handlerMethod.getMethod().getName());
+        AdaptiveConcurrencyLimiter concurrency = new AdaptiveConcurrencyLimiter(
+                config.getInitialConcurrency(), config.getMinConcurrency(), config.getMaxConcurrency());
+
+        Gauge.builder("employee.limit.inflight", concurrency, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        Gauge.builder("employee.limit.concurrency", concurrency, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+
+        return new EndpointLimits(config,
+                Caffeine.newBuilder()
+                        .maximumSize(properties.getMaxClients())
+                        .expireAfterAccess(Duration.ofMinutes(10))
+                        .build(),
+                concurrency,
+                rejections(endpoint, "rate"),
+                rejections(endpoint, "concurrency"));
+    }
+
+    private Counter rejections(String endpoint, String reason) {
+        return Counter.builder("employee.limit.rejected")
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private record EndpointLimits(LimitProperties.Endpoint config,
+                                  Cache<String, TokenBucket> buckets,
+                                  AdaptiveConcurrencyLimiter concurrency,
+                                  Counter rateRejections,
+                                  Counter concurrencyRejections) {
+    }
+}
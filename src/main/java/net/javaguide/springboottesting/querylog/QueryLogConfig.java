@@ -0,0 +1,43 @@
+package net.javaguide.springboottesting.querylog;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(QueryLogProperties.class)
+public class QueryLogConfig {
+
+    @Bean
+    public QueryLogListener queryLogListener(QueryLogProperties properties) {
+        return new QueryLogListener(properties);
+    }
+
+    @Bean
+    public QueryLogEndpoint queryLogEndpoint(QueryLogProperties properties) {
+        return new QueryLogEndpoint(properties);
+    }
+
+    // wraps the pooled DataSource so that every statement goes through the query log listener
+    @Bean
+    public static BeanPostProcessor queryLogDataSourcePostProcessor(ObjectProvider<QueryLogListener> listener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(listener.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
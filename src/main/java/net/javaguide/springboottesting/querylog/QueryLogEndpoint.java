@@ -0,0 +1,42 @@
+package net.javaguide.springboottesting.querylog;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+
+/**
+ * GET/POST /actuator/querylog : view or change the query log settings without a restart.
+ */
+@Endpoint(id = "querylog")
+public class QueryLogEndpoint {
+
+    private final QueryLogProperties properties;
+
+    public QueryLogEndpoint(QueryLogProperties properties) {
+        this.properties = properties;
+    }
+
+    @ReadOperation
+    public QueryLogProperties settings() {
+        return properties;
+    }
+
+    @WriteOperation
+    public QueryLogProperties configure(@Nullable Boolean enabled,
+                                        @Nullable Double sampleRate,
+                                        @Nullable Long slowQueryThresholdMs) {
+        if (enabled != null) {
+            properties.setEnabled(enabled);
+        }
+        if (sampleRate != null) {
+            properties.setSampleRate(Math.min(1.0, Math.max(0.0, sampleRate)));
+        }
+        if (slowQueryThresholdMs != null) {
+            properties.setSlowQueryThreshold(Duration.ofMillis(slowQueryThresholdMs));
+        }
+        return properties;
+    }
+}
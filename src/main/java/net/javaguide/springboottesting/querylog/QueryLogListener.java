@@ -0,0 +1,93 @@
+package net.javaguide.springboottesting.querylog;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Logs executed statements as one structured line : fingerprint, bind count, batch size, duration and rows.
+ * The "query-log" logger is routed to an async appender (logback-spring.xml).
+ */
+public class QueryLogListener implements QueryExecutionListener {
+
+    public static final String LOGGER_NAME = "query-log";
+
+    private static final Logger log = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final QueryLogProperties properties;
+
+    public QueryLogListener(QueryLogProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        long elapsedMillis = execInfo.getElapsedTime();
+        boolean slow = elapsedMillis >= properties.getSlowQueryThreshold().toMillis();
+        if (!slow && ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate()) {
+            return;
+        }
+
+        long rows = rows(execInfo.getResult());
+        for (QueryInfo queryInfo : queryInfoList) {
+            List<?> parametersList = queryInfo.getParametersList();
+            int batchSize = Math.max(1, parametersList.size());
+            int bindCount = parametersList.isEmpty() ? 0 : ((List<?>) parametersList.get(0)).size();
+
+            if (slow) {
+                log.warn("slow=true durationMs={} rows={} binds={} batch={} success={} sql=\"{}\"",
+                        elapsedMillis, rows, bindCount, batchSize, execInfo.isSuccess(), fingerprint(queryInfo.getQuery()));
+            } else {
+                log.info("slow=false durationMs={} rows={} binds={} batch={} success={} sql=\"{}\"",
+                        elapsedMillis, rows, bindCount, batchSize, execInfo.isSuccess(), fingerprint(queryInfo.getQuery()));
+            }
+        }
+    }
+
+    /**
+     * Normalizes a statement so that statements differing only in literals share one fingerprint.
+     */
+    public static String fingerprint(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("in (?)");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    // update counts are known, result sets are not consumed here so their row count is reported as -1
+    private static long rows(Object result) {
+        if (result instanceof Integer count) {
+            return count;
+        }
+        if (result instanceof Long count) {
+            return count;
+        }
+        if (result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        return -1;
+    }
+}
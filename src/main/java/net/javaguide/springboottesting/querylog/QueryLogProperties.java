@@ -0,0 +1,24 @@
+package net.javaguide.springboottesting.querylog;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the structured query log.
+ * Can be changed at runtime through the {@code querylog} actuator endpoint.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.query-log")
+public class QueryLogProperties {
+
+    private volatile boolean enabled = true;
+
+    // fraction of statements (0.0 ~ 1.0) logged, slow statements are always logged
+    private volatile double sampleRate = 0.01;
+
+    private volatile Duration slowQueryThreshold = Duration.ofMillis(200);
+}
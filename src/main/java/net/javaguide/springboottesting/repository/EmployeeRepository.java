@@ -3,24 +3,38 @@ package net.javaguide.springboottesting.repository;
 import net.javaguide.springboottesting.model.Employee;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 
+    // query cache : results are invalidated whenever the employees table is written through Hibernate
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<Employee> findByEmail(String email);
 
+    List<Employee> findByEmailIn(Collection<String> emails);
+
     // JPQL
     // define custom query using JPQL with index params
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     @Query("select e from Employee e where e.firstName = ?1 and e.lastName = ?2")
     Employee findByJPQL(String firstName, String lastName);
 
     // define custom query using JPQL with named params
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     @Query("select e from Employee e where e.firstName = :firstName and e.lastName = :lastName")
     Employee findByJPQLNamedParams(@Param("firstName") String firstName, @Param("lastName") String lastName);
 
     // Native Query
+    // not query cached : native SQL declares no query spaces, so Hibernate can't tell which updates invalidate it
     // define custom query using Native SQL index params
     @Query(value = "select * from employees e where e.first_name = ?1 and e.last_name = ?2", nativeQuery = true)
     Employee findByNativeSQL(String firstName, String lastName);
@@ -29,4 +43,35 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     @Query(value = "select * from employees e where e.first_name = :firstName and e.last_name = :lastName", nativeQuery = true)
     Employee findByNativeSQLNamedParams(@Param("firstName") String firstName, @Param("lastName") String lastName);
 
+    // id range queries of the parallel aggregations (EmployeeAggregator), bounds are inclusive and the primary key
+    // index limits each query to its range. Declared queries get no transaction of their own (only the inherited
+    // CRUD methods do), hence the read-only one : the aggregate workers call them outside any transaction
+    @Transactional(readOnly = true)
+    @Query("select min(e.id) from Employee e")
+    Long findMinId();
+
+    @Transactional(readOnly = true)
+    @Query("select max(e.id) from Employee e")
+    Long findMaxId();
+
+    @Transactional(readOnly = true)
+    long countByIdBetween(long fromId, long toId);
+
+    @Transactional(readOnly = true)
+    @Query("select lower(e.lastName) as key, count(e) as count from Employee e "
+            + "where e.id between :fromId and :toId group by lower(e.lastName)")
+    List<GroupCount> countByLastNameInIdRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Transactional(readOnly = true)
+    @Query("select lower(substring(e.email, locate('@', e.email) + 1)) as key, count(e) as count from Employee e "
+            + "where e.id between :fromId and :toId group by lower(substring(e.email, locate('@', e.email) + 1))")
+    List<GroupCount> countByEmailDomainInIdRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    interface GroupCount {
+
+        String getKey();
+
+        long getCount();
+    }
+
 }
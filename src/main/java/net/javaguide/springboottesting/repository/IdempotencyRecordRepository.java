@@ -0,0 +1,37 @@
+package net.javaguide.springboottesting.repository;
+
+import net.javaguide.springboottesting.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // fails with a DataIntegrityViolationException when the key is already claimed, by any node
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, request_hash, status_code, expires_at) "
+            + "VALUES (?1, ?2, " + IdempotencyRecord.IN_PROGRESS + ", ?3)", nativeQuery = true)
+    void insertClaim(String idempotencyKey, String requestHash, LocalDateTime expiresAt);
+
+    // claims a key whose record expired : a stored response past its ttl, or a claim whose execution never completed
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.requestHash = ?2, r.statusCode = " + IdempotencyRecord.IN_PROGRESS
+            + ", r.responseBody = null, r.expiresAt = ?3 where r.idempotencyKey = ?1 and r.expiresAt < ?4")
+    int reclaimExpired(String idempotencyKey, String requestHash, LocalDateTime expiresAt, LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.idempotencyKey = ?1 and r.statusCode = "
+            + IdempotencyRecord.IN_PROGRESS)
+    int deleteClaim(String idempotencyKey);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < ?1")
+    int deleteExpired(LocalDateTime now);
+}
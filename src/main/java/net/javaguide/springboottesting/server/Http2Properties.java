@@ -0,0 +1,22 @@
+package net.javaguide.springboottesting.server;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * HTTP/2 settings not exposed by server.http2.* (Tomcat only, see application-http2.properties for Undertow).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.server.http2")
+public class Http2Properties {
+
+    // streams a client can have in flight on one connection
+    private int maxConcurrentStreams = 100;
+
+    // idle time before an HTTP/2 connection is closed
+    private Duration keepAliveTimeout = Duration.ofSeconds(20);
+}
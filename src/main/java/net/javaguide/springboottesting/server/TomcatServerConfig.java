@@ -0,0 +1,40 @@
+package net.javaguide.springboottesting.server;
+
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http11.Http11Nio2Protocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Tomcat part of the http2 profile : NIO2 connector and HTTP/2 stream / keep-alive settings. Excluded from the
+ * build by the undertow Maven profile.
+ */
+@Configuration
+@Profile("http2")
+@ConditionalOnClass(name = "org.apache.catalina.startup.Tomcat")
+@EnableConfigurationProperties(Http2Properties.class)
+public class TomcatServerConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> http2TomcatCustomizer(
+            Http2Properties properties) {
+        return factory -> {
+            factory.setProtocol(Http11Nio2Protocol.class.getName());
+            // runs after Spring Boot added the Http2Protocol upgrade (server.http2.enabled)
+            factory.addConnectorCustomizers(connector -> {
+                for (UpgradeProtocol upgradeProtocol : connector.findUpgradeProtocols()) {
+                    if (upgradeProtocol instanceof Http2Protocol http2) {
+                        http2.setMaxConcurrentStreams(properties.getMaxConcurrentStreams());
+                        http2.setKeepAliveTimeout(properties.getKeepAliveTimeout().toMillis());
+                    }
+                }
+            });
+        };
+    }
+}
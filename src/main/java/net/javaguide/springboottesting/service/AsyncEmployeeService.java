@@ -0,0 +1,19 @@
+package net.javaguide.springboottesting.service;
+
+import net.javaguide.springboottesting.model.Employee;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link EmployeeService} calls run on bounded executors, so that callers can compose them with other calls and
+ * release their thread while the database answers.
+ */
+public interface AsyncEmployeeService {
+    CompletableFuture<Employee> saveEmployee(Employee employee);
+
+    CompletableFuture<List<Employee>> getAllEmployees();
+
+    CompletableFuture<Optional<Employee>> getEmployeeById(Long id);
+}
@@ -1,5 +1,6 @@
 package net.javaguide.springboottesting.service;
 
+import net.javaguide.springboottesting.batchupdate.BatchUpdateReport;
 import net.javaguide.springboottesting.model.Employee;
 
 import java.util.List;
@@ -12,7 +13,11 @@ public interface EmployeeService {
 
     Optional<Employee> getEmployeeById(Long id);
 
+    Optional<Employee> getEmployeeByEmail(String email);
+
     Employee updateEmployee(Employee updatedEmployee);
 
+    BatchUpdateReport updateEmployees(List<Employee> updatedEmployees);
+
     void deleteEmployee(Long id);
 }
@@ -0,0 +1,43 @@
+package net.javaguide.springboottesting.service.impl;
+
+import net.javaguide.springboottesting.bulkhead.Bulkhead;
+import net.javaguide.springboottesting.model.Employee;
+import net.javaguide.springboottesting.service.AsyncEmployeeService;
+import net.javaguide.springboottesting.service.EmployeeService;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// full scans keep their own bulkhead, they can't take the threads (and connections) of the lookups
+@Service
+public class AsyncEmployeeServiceImpl implements AsyncEmployeeService {
+
+    private EmployeeService employeeService;
+
+    private Bulkhead serviceBulkhead;
+
+    private Bulkhead scanBulkhead;
+
+    public AsyncEmployeeServiceImpl(EmployeeService employeeService, Bulkhead serviceBulkhead, Bulkhead scanBulkhead) {
+        this.employeeService = employeeService;
+        this.serviceBulkhead = serviceBulkhead;
+        this.scanBulkhead = scanBulkhead;
+    }
+
+    @Override
+    public CompletableFuture<Employee> saveEmployee(Employee employee) {
+        return serviceBulkhead.supply(() -> employeeService.saveEmployee(employee));
+    }
+
+    @Override
+    public CompletableFuture<List<Employee>> getAllEmployees() {
+        return scanBulkhead.supply(employeeService::getAllEmployees);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Employee>> getEmployeeById(Long id) {
+        return serviceBulkhead.supply(() -> employeeService.getEmployeeById(id));
+    }
+}
@@ -1,30 +1,88 @@
 package net.javaguide.springboottesting.service.impl;
 
+import jakarta.persistence.EntityManager;
+import net.javaguide.springboottesting.batchupdate.BatchUpdateProperties;
+import net.javaguide.springboottesting.batchupdate.BatchUpdateReport;
+import net.javaguide.springboottesting.cache.CacheConfig;
+import net.javaguide.springboottesting.directory.EmployeeDirectory;
+import net.javaguide.springboottesting.exception.EmailConstraint;
+import net.javaguide.springboottesting.exception.EmployeeAlreadyExistsException;
 import net.javaguide.springboottesting.exception.ResourceNotFoundException;
 import net.javaguide.springboottesting.model.Employee;
 import net.javaguide.springboottesting.repository.EmployeeRepository;
 import net.javaguide.springboottesting.service.EmployeeService;
+import net.javaguide.springboottesting.stream.EmployeeChangeBroadcaster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+// reads run in read-only transactions : no dirty checking nor flush by Hibernate, SET TRANSACTION READ ONLY for
+// MySQL (and a replica with a replication URL), writes each in one short read-write transaction
 @Service
+@Transactional(readOnly = true)
 public class EmployeeServiceImpl implements EmployeeService {
 
+    private static final Logger log = LoggerFactory.getLogger(EmployeeServiceImpl.class);
+
+
     private EmployeeRepository employeeRepository;
 
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    private EmployeeDirectory employeeDirectory;
+
+    private EmployeeChangeBroadcaster employeeChangeBroadcaster;
+
+    private EntityManager entityManager;
+
+    private BatchUpdateProperties batchUpdateProperties;
+
+    private CacheManager cacheManager;
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository,
+                               EmployeeDirectory employeeDirectory,
+                               EmployeeChangeBroadcaster employeeChangeBroadcaster,
+                               EntityManager entityManager,
+                               BatchUpdateProperties batchUpdateProperties,
+                               CacheManager cacheManager) {
         this.employeeRepository = employeeRepository;
+        this.employeeDirectory = employeeDirectory;
+        this.employeeChangeBroadcaster = employeeChangeBroadcaster;
+        this.entityManager = entityManager;
+        this.batchUpdateProperties = batchUpdateProperties;
+        this.cacheManager = cacheManager;
     }
 
+    // the lookup answers the common case without a failed insert, the unique email index settles concurrent saves
     @Override
+    @Transactional
     public Employee saveEmployee(Employee employee) {
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
+        Optional<Employee> savedEmployee = getEmployeeByEmail(employee.getEmail());
         if (savedEmployee.isPresent()) {
-            throw new ResourceNotFoundException("Employee already exist with given email: " + employee.getEmail());
+            throw new EmployeeAlreadyExistsException(employee.getEmail());
         }
-        return employeeRepository.save(employee);
+        Employee saved;
+        try {
+            saved = employeeRepository.save(employee);
+        } catch (DataIntegrityViolationException ex) {
+            if (EmailConstraint.isViolatedBy(ex)) {
+                throw new EmployeeAlreadyExistsException(employee.getEmail());
+            }
+            throw ex;
+        }
+        employeeDirectory.put(saved);
+        employeeChangeBroadcaster.created(saved);
+        return saved;
     }
 
     @Override
@@ -32,18 +90,79 @@ public class EmployeeServiceImpl implements EmployeeService {
         return employeeRepository.findAll();
     }
 
+    // the cache is skipped when the directory serves the lookups, it is faster than the cache
     @Override
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id", unless = "#result == null",
+            condition = "!@employeeDirectory.enabled")
     public Optional<Employee> getEmployeeById(Long id) {
-        return employeeRepository.findById(id);
+        return employeeDirectory.findById(id).or(() -> employeeRepository.findById(id));
     }
 
     @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        return employeeDirectory.findByEmail(email).or(() -> employeeRepository.findByEmail(email));
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#updatedEmployee.id")
     public Employee updateEmployee(Employee updatedEmployee) {
-        return employeeRepository.save(updatedEmployee);
+        Employee saved = employeeRepository.save(updatedEmployee);
+        employeeDirectory.put(saved);
+        employeeChangeBroadcaster.updated(saved);
+        return saved;
+    }
+
+    // one transaction : the employees of each chunk are loaded with one query, their updates are sent as JDBC batches
+    // (hibernate.jdbc.batch_size, hibernate.order_updates) when the chunk is flushed, then they are detached so that
+    // the persistence context, and the dirty checking of the next flushes, stay at one chunk. Only the updated ids are
+    // evicted, the cache defers the evictions until the transaction commits
+    @Override
+    @Transactional
+    public BatchUpdateReport updateEmployees(List<Employee> updatedEmployees) {
+        long start = System.nanoTime();
+        Cache cache = cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        Map<Long, Employee> updatesById = new LinkedHashMap<>();
+        updatedEmployees.forEach(employee -> updatesById.put(employee.getId(), employee));
+        List<Long> ids = new ArrayList<>(updatesById.keySet());
+
+        for (int from = 0; from < ids.size(); from += batchUpdateProperties.getChunkSize()) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchUpdateProperties.getChunkSize(), ids.size()));
+            List<Employee> savedEmployees = employeeRepository.findAllById(chunk);
+            if (savedEmployees.size() != chunk.size()) {
+                List<Long> missing = new ArrayList<>(chunk);
+                savedEmployees.forEach(employee -> missing.remove(employee.getId()));
+                throw new ResourceNotFoundException("Employees not found : " + missing);
+            }
+            for (Employee savedEmployee : savedEmployees) {
+                Employee employee = updatesById.get(savedEmployee.getId());
+                savedEmployee.setFirstName(employee.getFirstName());
+                savedEmployee.setLastName(employee.getLastName());
+                savedEmployee.setEmail(employee.getEmail());
+                employeeDirectory.put(savedEmployee);
+                employeeChangeBroadcaster.updated(savedEmployee);
+                if (cache != null) {
+                    cache.evict(savedEmployee.getId());
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        BatchUpdateReport report = new BatchUpdateReport(ids.size(), updatedEmployees.size() - ids.size(),
+                elapsedMillis, ids.size() * 1000L / Math.max(elapsedMillis, 1));
+        log.info("Employee batch update : {} rows in {} ms ({} rows/s)",
+                report.rowsUpdated(), report.elapsedMillis(), report.rowsPerSecond());
+        return report;
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id")
     public void deleteEmployee(Long id) {
         employeeRepository.deleteById(id);
+        employeeDirectory.remove(id);
+        employeeChangeBroadcaster.deleted(id);
     }
 }
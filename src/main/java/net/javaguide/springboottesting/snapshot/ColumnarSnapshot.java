@@ -0,0 +1,129 @@
+package net.javaguide.springboottesting.snapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Read-only, memory-mapped generation of the employee snapshot : an id column sorted by id and one dictionary code
+ * column per {@link SnapshotColumn}. Rows are read from the page cache, nothing is copied on the heap, so any
+ * number of threads can read a snapshot concurrently.
+ */
+public final class ColumnarSnapshot {
+
+    static final String META_FILE = "meta.properties";
+    static final String ID_FILE = "id.col";
+
+    private final long generation;
+    private final int size;
+    private final Instant builtAt;
+    private final Instant watermark;
+    private final LongBuffer ids;
+    private final Map<SnapshotColumn, IntBuffer> codes = new EnumMap<>(SnapshotColumn.class);
+    private final Map<SnapshotColumn, Dictionary> dictionaries = new EnumMap<>(SnapshotColumn.class);
+
+    private ColumnarSnapshot(Path directory, Properties meta) throws IOException {
+        this.generation = Long.parseLong(meta.getProperty("generation"));
+        this.size = Integer.parseInt(meta.getProperty("rows"));
+        this.builtAt = Instant.parse(meta.getProperty("built-at"));
+        this.watermark = meta.containsKey("watermark") ? Instant.parse(meta.getProperty("watermark")) : null;
+        this.ids = Dictionary.map(directory.resolve(ID_FILE)).asLongBuffer();
+        for (SnapshotColumn column : SnapshotColumn.values()) {
+            codes.put(column, Dictionary.map(directory.resolve(column.fileName() + ".col")).asIntBuffer());
+            dictionaries.put(column, Dictionary.open(directory.resolve(column.fileName() + ".dict")));
+        }
+    }
+
+    public static ColumnarSnapshot open(Path directory) throws IOException {
+        Properties meta = new Properties();
+        try (InputStream in = Files.newInputStream(directory.resolve(META_FILE))) {
+            meta.load(in);
+        }
+        return new ColumnarSnapshot(directory, meta);
+    }
+
+    public long generation() {
+        return generation;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Instant builtAt() {
+        return builtAt;
+    }
+
+    // largest updated_at of the rows in the snapshot, null when the table was empty
+    public Instant watermark() {
+        return watermark;
+    }
+
+    public long id(int row) {
+        return ids.get(row);
+    }
+
+    public int code(SnapshotColumn column, int row) {
+        return codes.get(column).get(row);
+    }
+
+    public String decode(SnapshotColumn column, int code) {
+        return dictionaries.get(column).value(code);
+    }
+
+    Dictionary dictionary(SnapshotColumn column) {
+        return dictionaries.get(column);
+    }
+
+    /**
+     * @return the row of the employee, or a negative value when it is not in the snapshot
+     */
+    public int indexOf(long id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = ids.get(mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    boolean contains(SnapshotRow row) {
+        int index = indexOf(row.id());
+        if (index < 0) {
+            return false;
+        }
+        for (SnapshotColumn column : SnapshotColumn.values()) {
+            if (!decode(column, code(column, index)).equals(column.value(row.lastName(), row.email()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of rows per dictionary code of the column
+     */
+    public long[] countBy(SnapshotColumn column) {
+        IntBuffer columnCodes = codes.get(column);
+        long[] counts = new long[dictionaries.get(column).size()];
+        for (int row = 0; row < size; row++) {
+            counts[columnCodes.get(row)]++;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,140 @@
+package net.javaguide.springboottesting.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Writes a snapshot generation, rows must be added in id order. Rows of the previous generation are copied through a
+ * mapping of their old dictionary codes to the new ones, each old code is decoded once.
+ */
+public class ColumnarSnapshotWriter implements Closeable {
+
+    private final Path directory;
+    private final long generation;
+    private final DataOutputStream ids;
+    private final Map<SnapshotColumn, DataOutputStream> codes = new EnumMap<>(SnapshotColumn.class);
+    private final Map<SnapshotColumn, Dictionary.Builder> dictionaries = new EnumMap<>(SnapshotColumn.class);
+    // new code of each code of the previous generation, -1 until a copied row uses it
+    private final Map<SnapshotColumn, int[]> previousCodes = new EnumMap<>(SnapshotColumn.class);
+
+    private int rows;
+    private long lastId = Long.MIN_VALUE;
+
+    public ColumnarSnapshotWriter(Path directory, long generation, ColumnarSnapshot previous) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.generation = generation;
+        this.ids = open(ColumnarSnapshot.ID_FILE);
+        for (SnapshotColumn column : SnapshotColumn.values()) {
+            codes.put(column, open(column.fileName() + ".col"));
+            dictionaries.put(column, new Dictionary.Builder());
+            if (previous != null) {
+                int[] mapping = new int[previous.dictionary(column).size()];
+                Arrays.fill(mapping, -1);
+                previousCodes.put(column, mapping);
+            }
+        }
+    }
+
+    private DataOutputStream open(String fileName) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(directory.resolve(fileName))));
+    }
+
+    public void add(SnapshotRow row) throws IOException {
+        writeId(row.id());
+        for (SnapshotColumn column : SnapshotColumn.values()) {
+            codes.get(column).writeInt(dictionaries.get(column).code(column.value(row.lastName(), row.email())));
+        }
+    }
+
+    private void copy(ColumnarSnapshot previous, int row) throws IOException {
+        writeId(previous.id(row));
+        for (SnapshotColumn column : SnapshotColumn.values()) {
+            int[] mapping = previousCodes.get(column);
+            int code = previous.code(column, row);
+            if (mapping[code] < 0) {
+                mapping[code] = dictionaries.get(column).code(previous.decode(column, code));
+            }
+            codes.get(column).writeInt(mapping[code]);
+        }
+    }
+
+    private void writeId(long id) throws IOException {
+        if (id <= lastId) {
+            throw new IllegalArgumentException(
+                    "Snapshot rows must be added in id order, got " + id + " after " + lastId);
+        }
+        lastId = id;
+        ids.writeLong(id);
+        rows++;
+    }
+
+    /**
+     * Merge join of the previous generation with the rows changed since (sorted by id), the changed rows win.
+     *
+     * @param liveIds ids of the table sorted, rows with other ids were deleted. Null when nothing was deleted.
+     */
+    public void merge(ColumnarSnapshot previous, List<SnapshotRow> changes, long[] liveIds) throws IOException {
+        int previousSize = previous == null ? 0 : previous.size();
+        int i = 0;
+        int j = 0;
+        while (i < previousSize || j < changes.size()) {
+            long previousId = i < previousSize ? previous.id(i) : Long.MAX_VALUE;
+            long changedId = j < changes.size() ? changes.get(j).id() : Long.MAX_VALUE;
+            if (changedId <= previousId) {
+                if (isLive(changedId, liveIds)) {
+                    add(changes.get(j));
+                }
+                j++;
+                if (changedId == previousId) {
+                    i++;
+                }
+            } else {
+                if (isLive(previousId, liveIds)) {
+                    copy(previous, i);
+                }
+                i++;
+            }
+        }
+    }
+
+    private static boolean isLive(long id, long[] liveIds) {
+        return liveIds == null || Arrays.binarySearch(liveIds, id) >= 0;
+    }
+
+    public ColumnarSnapshot finish(Instant watermark) throws IOException {
+        close();
+        for (SnapshotColumn column : SnapshotColumn.values()) {
+            dictionaries.get(column).write(directory.resolve(column.fileName() + ".dict"));
+        }
+        Properties meta = new Properties();
+        meta.setProperty("generation", Long.toString(generation));
+        meta.setProperty("rows", Integer.toString(rows));
+        meta.setProperty("built-at", Instant.now().toString());
+        if (watermark != null) {
+            meta.setProperty("watermark", watermark.toString());
+        }
+        try (OutputStream out = Files.newOutputStream(directory.resolve(ColumnarSnapshot.META_FILE))) {
+            meta.store(out, null);
+        }
+        return ColumnarSnapshot.open(directory);
+    }
+
+    @Override
+    public void close() throws IOException {
+        ids.close();
+        for (DataOutputStream out : codes.values()) {
+            out.close();
+        }
+    }
+}
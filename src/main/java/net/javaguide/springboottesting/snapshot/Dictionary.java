@@ -0,0 +1,86 @@
+package net.javaguide.springboottesting.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Memory-mapped dictionary of a column : the code of a value is its index. File layout : value count, offsets of the
+ * values (count + 1 ints) and the UTF-8 bytes of the values.
+ */
+final class Dictionary {
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int dataStart;
+
+    private Dictionary(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.size = buffer.getInt(0);
+        this.dataStart = Integer.BYTES * (size + 2);
+    }
+
+    static Dictionary open(Path file) throws IOException {
+        return new Dictionary(map(file));
+    }
+
+    static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    String value(int code) {
+        int from = buffer.getInt(Integer.BYTES * (code + 1));
+        int to = buffer.getInt(Integer.BYTES * (code + 2));
+        byte[] bytes = new byte[to - from];
+        buffer.get(dataStart + from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Codes of a dictionary being written. Only the values of the rows written get a code, so values no longer used
+     * by any row are dropped at each generation.
+     */
+    static final class Builder {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<byte[]> values = new ArrayList<>();
+
+        int code(String value) {
+            return codes.computeIfAbsent(value, key -> {
+                values.add(key.getBytes(StandardCharsets.UTF_8));
+                return values.size() - 1;
+            });
+        }
+
+        void write(Path file) throws IOException {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                out.writeInt(values.size());
+                int offset = 0;
+                out.writeInt(offset);
+                for (byte[] value : values) {
+                    offset += value.length;
+                    out.writeInt(offset);
+                }
+                for (byte[] value : values) {
+                    out.write(value);
+                }
+            }
+        }
+    }
+}
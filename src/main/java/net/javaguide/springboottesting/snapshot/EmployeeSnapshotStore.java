@@ -0,0 +1,212 @@
+package net.javaguide.springboottesting.snapshot;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Columnar snapshot of the employees table for the analytics reads, rebuilt every
+ * {@code employee.snapshot.rebuild-interval}. The first build scans the table, the next ones only read the rows
+ * updated since the watermark of the current generation (updated_at column) and merge them with it. Deleted rows
+ * are detected by comparing row counts, the ids are only read when they differ. A live id found neither in the
+ * current generation nor in the changes is a row committed later than {@code employee.snapshot.overlap} after its
+ * updated_at : the table is scanned again.
+ */
+public class EmployeeSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeSnapshotStore.class);
+
+    private static final String CURRENT_FILE = "CURRENT";
+    private static final String ROWS_SQL = "SELECT id, last_name, email, updated_at FROM employees";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SnapshotProperties properties;
+    private final Path directory;
+
+    private volatile ColumnarSnapshot current;
+
+    public EmployeeSnapshotStore(JdbcTemplate jdbcTemplate, SnapshotProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.directory = Path.of(properties.getDirectory());
+    }
+
+    // reuses the generation of the previous run, the first rebuild is then incremental
+    @PostConstruct
+    public void open() {
+        Path currentFile = directory.resolve(CURRENT_FILE);
+        if (!Files.exists(currentFile)) {
+            return;
+        }
+        try {
+            current = ColumnarSnapshot.open(directory.resolve(Files.readString(currentFile).trim()));
+            log.info("Employee snapshot generation {} opened ({} rows)", current.generation(), current.size());
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Employee snapshot in {} can't be opened, it will be rebuilt", directory, ex);
+        }
+    }
+
+    public Optional<ColumnarSnapshot> current() {
+        return Optional.ofNullable(current);
+    }
+
+    public Optional<EmployeeStats> stats(SnapshotColumn column, int limit) {
+        ColumnarSnapshot snapshot = current;
+        if (snapshot == null) {
+            return Optional.empty();
+        }
+        long[] counts = snapshot.countBy(column);
+        List<EmployeeStats.Group> groups = IntStream.range(0, counts.length)
+                .filter(code -> counts[code] > 0)
+                .boxed()
+                .sorted(Comparator.comparingLong((Integer code) -> counts[code]).reversed())
+                .limit(limit)
+                .map(code -> new EmployeeStats.Group(snapshot.decode(column, code), counts[code]))
+                .toList();
+        return Optional.of(new EmployeeStats(column.groupBy(), snapshot.size(), snapshot.builtAt(), groups));
+    }
+
+    @Scheduled(fixedDelayString = "${employee.snapshot.rebuild-interval:PT5M}",
+            initialDelayString = "${employee.snapshot.initial-delay:PT10S}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (IOException | UncheckedIOException | DataAccessException ex) {
+            log.warn("Employee snapshot rebuild failed, generation {} is still served",
+                    current == null ? "none" : current.generation(), ex);
+        }
+    }
+
+    public synchronized ColumnarSnapshot rebuild() throws IOException {
+        ColumnarSnapshot previous = current;
+        long start = System.nanoTime();
+        long generation = previous == null ? 1 : previous.generation() + 1;
+        Path generationDirectory = directory.resolve("gen-" + generation);
+        // leftover of a failed build
+        FileSystemUtils.deleteRecursively(generationDirectory);
+
+        ColumnarSnapshot next;
+        try {
+            next = previous == null || previous.watermark() == null
+                    ? fullBuild(generationDirectory, generation)
+                    : incrementalBuild(previous, generationDirectory, generation);
+        } catch (IOException | RuntimeException ex) {
+            FileSystemUtils.deleteRecursively(generationDirectory);
+            throw ex;
+        }
+        if (next == previous) {
+            return previous;
+        }
+
+        Path currentFile = directory.resolve(CURRENT_FILE);
+        Path tmp = directory.resolve(CURRENT_FILE + ".tmp");
+        Files.writeString(tmp, generationDirectory.getFileName().toString(), StandardCharsets.UTF_8);
+        Files.move(tmp, currentFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        current = next;
+        deleteOldGenerations(next.generation());
+        log.info("Employee snapshot generation {} built in {} ms ({} rows)", next.generation(),
+                (System.nanoTime() - start) / 1_000_000, next.size());
+        return next;
+    }
+
+    private ColumnarSnapshot fullBuild(Path generationDirectory, long generation) throws IOException {
+        try (ColumnarSnapshotWriter writer = new ColumnarSnapshotWriter(generationDirectory, generation, null)) {
+            Instant[] watermark = {null};
+            jdbcTemplate.query(ROWS_SQL + " ORDER BY id", rs -> {
+                try {
+                    writer.add(row(rs));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                watermark[0] = max(watermark[0], rs.getTimestamp("updated_at"));
+            });
+            return writer.finish(watermark[0]);
+        }
+    }
+
+    // returns the previous generation when nothing changed
+    private ColumnarSnapshot incrementalBuild(ColumnarSnapshot previous, Path generationDirectory, long generation)
+            throws IOException {
+        List<SnapshotRow> changes = new ArrayList<>();
+        Instant[] watermark = {previous.watermark()};
+        jdbcTemplate.query(ROWS_SQL + " WHERE updated_at >= ? ORDER BY id", rs -> {
+            changes.add(row(rs));
+            watermark[0] = max(watermark[0], rs.getTimestamp("updated_at"));
+        }, Timestamp.from(previous.watermark().minus(properties.getOverlap())));
+        long liveRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employees", Long.class);
+        if (liveRows == previous.size() && changes.stream().allMatch(previous::contains)) {
+            return previous;
+        }
+        // without deletes the table has the rows of the previous generation plus the inserted ones
+        long insertedRows = changes.stream().filter(row -> previous.indexOf(row.id()) < 0).count();
+        long[] liveIds = liveRows == previous.size() + insertedRows ? null : liveIds();
+        if (liveIds != null && missesRows(previous, changes, liveIds)) {
+            log.info("Employee snapshot missed rows committed after the overlap, the table is scanned again");
+            return fullBuild(generationDirectory, generation);
+        }
+        try (ColumnarSnapshotWriter writer = new ColumnarSnapshotWriter(generationDirectory, generation, previous)) {
+            writer.merge(previous, changes, liveIds);
+            return writer.finish(watermark[0]);
+        }
+    }
+
+    private long[] liveIds() {
+        LongStream.Builder ids = LongStream.builder();
+        jdbcTemplate.query("SELECT id FROM employees ORDER BY id", rs -> {
+            ids.add(rs.getLong(1));
+        });
+        return ids.build().toArray();
+    }
+
+    private static boolean missesRows(ColumnarSnapshot previous, List<SnapshotRow> changes, long[] liveIds) {
+        long[] changedIds = changes.stream().mapToLong(SnapshotRow::id).toArray();
+        return Arrays.stream(liveIds)
+                .anyMatch(id -> previous.indexOf(id) < 0 && Arrays.binarySearch(changedIds, id) < 0);
+    }
+
+    // the previous generation is kept, requests may still be reading it
+    private void deleteOldGenerations(long currentGeneration) throws IOException {
+        List<Path> generations;
+        try (Stream<Path> paths = Files.list(directory)) {
+            generations = paths.filter(path -> path.getFileName().toString().startsWith("gen-")).toList();
+        }
+        for (Path generation : generations) {
+            long number = Long.parseLong(generation.getFileName().toString().substring("gen-".length()));
+            if (number < currentGeneration - 1) {
+                FileSystemUtils.deleteRecursively(generation);
+            }
+        }
+    }
+
+    private static SnapshotRow row(ResultSet rs) throws SQLException {
+        return new SnapshotRow(rs.getLong("id"), rs.getString("last_name"), rs.getString("email"));
+    }
+
+    private static Instant max(Instant watermark, Timestamp updatedAt) {
+        Instant instant = updatedAt.toInstant();
+        return watermark == null || instant.isAfter(watermark) ? instant : watermark;
+    }
+}
@@ -0,0 +1,14 @@
+package net.javaguide.springboottesting.snapshot;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Employee counts per value of {@code groupBy}, largest first. {@code asOf} is the build time of the snapshot they
+ * were computed from, or the query time when they come from the database.
+ */
+public record EmployeeStats(String groupBy, long total, Instant asOf, List<Group> groups) {
+
+    public record Group(String key, long count) {
+    }
+}
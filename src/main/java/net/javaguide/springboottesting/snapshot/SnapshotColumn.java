@@ -0,0 +1,47 @@
+package net.javaguide.springboottesting.snapshot;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Dictionary encoded columns of the snapshot, named after the {@code groupBy} values of the stats endpoint.
+ */
+public enum SnapshotColumn {
+
+    LAST_NAME("lastName", "last_name"),
+    EMAIL_DOMAIN("emailDomain", "email_domain");
+
+    private final String groupBy;
+    private final String fileName;
+
+    SnapshotColumn(String groupBy, String fileName) {
+        this.groupBy = groupBy;
+        this.fileName = fileName;
+    }
+
+    public String groupBy() {
+        return groupBy;
+    }
+
+    String fileName() {
+        return fileName;
+    }
+
+    String value(String lastName, String email) {
+        return key(this == LAST_NAME ? lastName : email);
+    }
+
+    /**
+     * Group of a last name or an email : last names ignoring case, email domains (after the last '@') ignoring case.
+     * Both the snapshot and the database aggregations (EmployeeAggregator) group by it.
+     */
+    public String key(String value) {
+        String key = this == LAST_NAME ? value : value.substring(value.lastIndexOf('@') + 1);
+        return key.toLowerCase(Locale.ROOT);
+    }
+
+    public static Optional<SnapshotColumn> fromGroupBy(String groupBy) {
+        return Arrays.stream(values()).filter(column -> column.groupBy.equals(groupBy)).findFirst();
+    }
+}
@@ -0,0 +1,47 @@
+package net.javaguide.springboottesting.snapshot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(SnapshotProperties.class)
+@ConditionalOnProperty(name = "employee.snapshot.enabled", havingValue = "true", matchIfMissing = true)
+public class SnapshotConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotConfig.class);
+
+    @Bean
+    public EmployeeSnapshotStore employeeSnapshotStore(DataSource dataSource, SnapshotProperties properties) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        if (isMySql(dataSource)) {
+            // Connector/J streams the rows of the full scan instead of loading the whole result set, other drivers
+            // reject the value
+            jdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        }
+        return new EmployeeSnapshotStore(jdbcTemplate, properties);
+    }
+
+    private static boolean isMySql(DataSource dataSource) {
+        try {
+            String productName = JdbcUtils.extractDatabaseMetaData(dataSource,
+                    DatabaseMetaData::getDatabaseProductName);
+            return DatabaseDriver.fromProductName(productName) == DatabaseDriver.MYSQL;
+        } catch (MetaDataAccessException ex) {
+            log.warn("Database of the employee snapshot not detected, rows are not streamed", ex);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package net.javaguide.springboottesting.snapshot;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.snapshot")
+public class SnapshotProperties {
+
+    private boolean enabled = true;
+
+    // one sub directory per snapshot generation, the current one is named in the CURRENT file
+    private String directory = Path.of(System.getProperty("java.io.tmpdir"), "employee-snapshot").toString();
+
+    // rows updated this long before the last snapshot watermark are read again, so that transactions committed
+    // after the last rebuild with an earlier updated_at are not missed
+    private Duration overlap = Duration.ofMinutes(1);
+}
@@ -0,0 +1,4 @@
+package net.javaguide.springboottesting.snapshot;
+
+public record SnapshotRow(long id, String lastName, String email) {
+}
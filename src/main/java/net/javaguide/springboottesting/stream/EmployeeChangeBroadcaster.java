@@ -0,0 +1,413 @@
+package net.javaguide.springboottesting.stream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.javaguide.springboottesting.model.Employee;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans the employee changes out to the SSE subscribers. Publishing only appends the event to a bounded queue per
+ * subscriber, the sender threads write the queues to the connections, one task per subscriber at a time. A subscriber
+ * whose queue is full is disconnected and resumes from its Last-Event-ID, served from the last {@code replaySize}
+ * events (or with a RESET event once they are gone).
+ * <p>
+ * A send blocked for more than {@code sendTimeout} (a client that stopped reading with a full TCP window) disconnects
+ * its subscriber as well, and the sender pool gets a replacement thread until the blocked write returns, up to
+ * {@code maxBlockedSenders}. The heartbeat and this watchdog run on their own scheduler thread.
+ * <p>
+ * The events of a transaction are published after its commit, a transaction with more events than a subscriber
+ * buffers (bulk update) is published as a single RESET instead of disconnecting every subscriber.
+ * <p>
+ * The events and their replay buffer are local to the node: the SSE ids are prefixed with a random id of the node
+ * (a new one on each start), a Last-Event-ID issued by another node or by a previous run gets a RESET. Behind a load
+ * balancer the streams resume without a reload only with sticky sessions.
+ */
+public class EmployeeChangeBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeChangeBroadcaster.class);
+
+    private final TaskExecutor executor;
+    private final StreamProperties properties;
+    private final String nodeId = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Counter evictedSubscribers;
+    private final Counter blockedSubscribers;
+    // guards the sends in progress and the replacement threads added to the sender pool for the blocked ones
+    private final Object sendersLock = new Object();
+    private int replacementSenders;
+    private ScheduledExecutorService scheduler;
+
+    // guarded by this
+    private final ArrayDeque<EmployeeChangeEvent> recentEvents = new ArrayDeque<>();
+    private long lastEventId;
+
+    public EmployeeChangeBroadcaster(TaskExecutor executor, StreamProperties properties, MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.properties = properties;
+        this.evictedSubscribers = Counter.builder("employee.stream.evicted")
+                .description("Subscribers disconnected because they fell behind")
+                .register(meterRegistry);
+        this.blockedSubscribers = Counter.builder("employee.stream.blocked")
+                .description("Subscribers disconnected because a send blocked longer than the send timeout")
+                .register(meterRegistry);
+        Gauge.builder("employee.stream.subscribers", subscribers, Set::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long heartbeatMillis = properties.getHeartbeatInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        long watchdogMillis = Math.max(properties.getSendTimeout().toMillis() / 2, 1);
+        scheduler.scheduleWithFixedDelay(this::evictBlockedSubscribers, watchdogMillis, watchdogMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public void created(Employee employee) {
+        publishAfterCommit(EmployeeChangeEvent.Type.CREATED, employee.getId(), copy(employee));
+    }
+
+    public void updated(Employee employee) {
+        publishAfterCommit(EmployeeChangeEvent.Type.UPDATED, employee.getId(), copy(employee));
+    }
+
+    public void deleted(long id) {
+        publishAfterCommit(EmployeeChangeEvent.Type.DELETED, id, null);
+    }
+
+    // employees changed without events (bulk import) : the subscribers reload them
+    public void reset() {
+        publishAfterCommit(EmployeeChangeEvent.Type.RESET, null, null);
+    }
+
+    // copied now, the entity may still be modified before the commit
+    private static Employee copy(Employee employee) {
+        return Employee.builder()
+                .id(employee.getId())
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .build();
+    }
+
+    private void publishAfterCommit(EmployeeChangeEvent.Type type, Long employeeId, Employee employee) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(type, employeeId, employee);
+            return;
+        }
+        TransactionEvents events = (TransactionEvents) TransactionSynchronizationManager.getResource(this);
+        if (events == null) {
+            events = new TransactionEvents();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(events);
+        }
+        events.add(new PendingEvent(type, employeeId, employee));
+    }
+
+    private void publish(EmployeeChangeEvent.Type type, Long employeeId, Employee employee) {
+        List<Subscriber> lagging = new ArrayList<>();
+        synchronized (this) {
+            EmployeeChangeEvent event = new EmployeeChangeEvent(++lastEventId, type, employeeId, employee);
+            recentEvents.addLast(event);
+            if (recentEvents.size() > properties.getReplaySize()) {
+                recentEvents.removeFirst();
+            }
+            // under the lock so that a new subscriber gets each event once, from the replay or from here
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.offer(event)) {
+                    lagging.add(subscriber);
+                }
+            }
+        }
+        for (Subscriber subscriber : lagging) {
+            evictedSubscribers.increment();
+            log.debug("Employee stream subscriber fell behind by {} events, disconnecting it",
+                    properties.getBufferSize());
+            subscriber.close();
+        }
+    }
+
+    /**
+     * SSE id of the event, the Last-Event-ID sent back by the client when it reconnects.
+     */
+    public String eventId(EmployeeChangeEvent event) {
+        return nodeId + "-" + event.id();
+    }
+
+    /**
+     * Registers the emitter, after queueing the events it missed since {@code lastEventId} (none when null).
+     */
+    public void subscribe(SseEmitter emitter, String lastEventId) {
+        if (subscribers.size() >= properties.getMaxSubscribers()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many employee stream subscribers");
+        }
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(ex -> subscriber.close());
+        synchronized (this) {
+            if (lastEventId != null) {
+                replay(subscriber, lastEventId);
+            }
+            subscribers.add(subscriber);
+        }
+        subscriber.schedule();
+    }
+
+    // guarded by this
+    private void replay(Subscriber subscriber, String lastEventId) {
+        long since = sequence(lastEventId);
+        if (since == this.lastEventId) {
+            return;
+        }
+        EmployeeChangeEvent oldest = recentEvents.peekFirst();
+        if (since < 0 || oldest == null || since < oldest.id() - 1 || since > this.lastEventId) {
+            subscriber.replay.add(new EmployeeChangeEvent(this.lastEventId, EmployeeChangeEvent.Type.RESET, null,
+                    null));
+            return;
+        }
+        for (EmployeeChangeEvent event : recentEvents) {
+            if (event.id() > since) {
+                subscriber.replay.add(event);
+            }
+        }
+    }
+
+    // -1 for an id of another node, or not issued by a broadcaster
+    private long sequence(String eventId) {
+        String prefix = nodeId + "-";
+        if (!eventId.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            subscriber.schedule();
+        }
+    }
+
+    public void evictBlockedSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long startedAt = subscriber.sendStartedAt;
+            if (startedAt != 0 && now - startedAt > properties.getSendTimeout().toNanos()
+                    && subscriber.blocked.compareAndSet(false, true)) {
+                blockedSubscribers.increment();
+                log.debug("Employee stream send blocked for more than {}, disconnecting the subscriber",
+                        properties.getSendTimeout());
+                addReplacementSender(subscriber);
+                subscriber.close();
+            }
+        }
+    }
+
+    // the blocked thread is lost to the other subscribers until its write returns (connector write timeout)
+    private void addReplacementSender(Subscriber subscriber) {
+        synchronized (sendersLock) {
+            if (subscriber.sendStartedAt != 0 && executor instanceof ThreadPoolTaskExecutor pool
+                    && replacementSenders < properties.getMaxBlockedSenders()) {
+                replacementSenders++;
+                subscriber.replaced = true;
+                pool.setMaxPoolSize(pool.getMaxPoolSize() + 1);
+                pool.setCorePoolSize(pool.getCorePoolSize() + 1);
+            }
+        }
+    }
+
+    private void sendDone(Subscriber subscriber) {
+        synchronized (sendersLock) {
+            subscriber.sendStartedAt = 0;
+            if (subscriber.replaced) {
+                subscriber.replaced = false;
+                replacementSenders--;
+                ThreadPoolTaskExecutor pool = (ThreadPoolTaskExecutor) executor;
+                pool.setCorePoolSize(pool.getCorePoolSize() - 1);
+                pool.setMaxPoolSize(pool.getMaxPoolSize() - 1);
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private record PendingEvent(EmployeeChangeEvent.Type type, Long employeeId, Employee employee) {
+    }
+
+    // events of one transaction, bound to it as a resource of the broadcaster
+    private class TransactionEvents implements TransactionSynchronization {
+
+        private final List<PendingEvent> events = new ArrayList<>();
+        private boolean overflow;
+
+        void add(PendingEvent event) {
+            if (overflow) {
+                return;
+            }
+            if (events.size() == properties.getBufferSize()) {
+                overflow = true;
+                events.clear();
+                return;
+            }
+            events.add(event);
+        }
+
+        @Override
+        public void afterCommit() {
+            if (overflow) {
+                publish(EmployeeChangeEvent.Type.RESET, null, null);
+                return;
+            }
+            for (PendingEvent event : events) {
+                publish(event.type(), event.employeeId(), event.employee());
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(EmployeeChangeBroadcaster.this);
+        }
+    }
+
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+        // filled before the subscriber is registered, not counted in the buffer size
+        private final Queue<EmployeeChangeEvent> replay = new ArrayDeque<>();
+        private final Queue<EmployeeChangeEvent> events = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // System.nanoTime() when the current send started, 0 between sends
+        private volatile long sendStartedAt;
+        private final AtomicBoolean blocked = new AtomicBoolean();
+        // guarded by sendersLock
+        private boolean replaced;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // false when the subscriber is too far behind
+        boolean offer(EmployeeChangeEvent event) {
+            if (closed.get()) {
+                return true;
+            }
+            if (size.incrementAndGet() > properties.getBufferSize()) {
+                return false;
+            }
+            events.add(event);
+            schedule();
+            return true;
+        }
+
+        void schedule() {
+            if (!closed.get() && scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::send);
+                } catch (TaskRejectedException ex) {
+                    close();
+                }
+            }
+        }
+
+        private void send() {
+            try {
+                do {
+                    if (heartbeatDue) {
+                        heartbeatDue = false;
+                        write(SseEmitter.event().comment("heartbeat"));
+                    }
+                    EmployeeChangeEvent event;
+                    while (!closed.get() && (event = replay.poll()) != null) {
+                        send(event);
+                    }
+                    while (!closed.get() && (event = events.poll()) != null) {
+                        size.decrementAndGet();
+                        send(event);
+                    }
+                    scheduled.set(false);
+                    // an event offered after the poll above but before the flag was cleared
+                } while (!closed.get() && (!events.isEmpty() || heartbeatDue) && scheduled.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException ex) {
+                // client gone, or emitter already completed
+                log.debug("Employee stream subscriber disconnected", ex);
+                scheduled.set(false);
+                close();
+            }
+        }
+
+        private void send(EmployeeChangeEvent event) throws IOException {
+            write(SseEmitter.event()
+                    .id(eventId(event))
+                    .name(event.type().eventName())
+                    .data(event, MediaType.APPLICATION_JSON));
+        }
+
+        private void write(SseEmitter.SseEventBuilder event) throws IOException {
+            sendStartedAt = System.nanoTime();
+            try {
+                emitter.send(event);
+            } finally {
+                sendDone(this);
+            }
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            subscribers.remove(this);
+            events.clear();
+            emitter.complete();
+        }
+    }
+}
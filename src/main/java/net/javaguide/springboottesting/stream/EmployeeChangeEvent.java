@@ -0,0 +1,20 @@
+package net.javaguide.springboottesting.stream;
+
+import net.javaguide.springboottesting.model.Employee;
+
+/**
+ * Change of an employee, sent as the SSE event {@code type}, its SSE id made of the node id and {@code id}.
+ * {@code employee} is null for DELETED and RESET : after a RESET the client reloads the employees, the changes since
+ * its Last-Event-ID are no longer known (bulk import or update, events dropped from the replay buffer, restart,
+ * stream resumed on another node).
+ */
+public record EmployeeChangeEvent(long id, Type type, Long employeeId, Employee employee) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED, RESET;
+
+        public String eventName() {
+            return name().toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package net.javaguide.springboottesting.stream;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Collections;
+
+@Configuration
+@EnableConfigurationProperties(StreamProperties.class)
+public class StreamConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor streamExecutor(StreamProperties properties, MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("stream-");
+        executor.setCorePoolSize(properties.getSenderThreads());
+        executor.setMaxPoolSize(properties.getSenderThreads());
+        // at most one queued task per subscriber. The pool grows past sender-threads while sends are blocked
+        // (EmployeeChangeBroadcaster)
+        executor.initialize();
+        ExecutorServiceMetrics.monitor(meterRegistry, executor.getThreadPoolExecutor(), "employee.stream",
+                Collections.emptyList());
+        return executor;
+    }
+
+    @Bean
+    public EmployeeChangeBroadcaster employeeChangeBroadcaster(ThreadPoolTaskExecutor streamExecutor,
+                                                               StreamProperties properties,
+                                                               MeterRegistry meterRegistry) {
+        return new EmployeeChangeBroadcaster(streamExecutor, properties, meterRegistry);
+    }
+}
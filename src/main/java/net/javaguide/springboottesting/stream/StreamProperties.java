@@ -0,0 +1,38 @@
+package net.javaguide.springboottesting.stream;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.stream")
+public class StreamProperties {
+
+    // over it new subscriptions are rejected with 503
+    private int maxSubscribers = 10_000;
+
+    // events queued per subscriber, a subscriber that falls further behind is disconnected. A transaction changing more
+    // employees is published as a single RESET
+    private int bufferSize = 256;
+
+    // last events kept to resume a stream from its Last-Event-ID
+    private int replaySize = 10_000;
+
+    // threads writing the events to the subscribers
+    private int senderThreads = 4;
+
+    // a send blocked longer than this disconnects its subscriber
+    private Duration sendTimeout = Duration.ofSeconds(5);
+
+    // sender threads added while blocked sends hold theirs, each until its write returns
+    private int maxBlockedSenders = 16;
+
+    // comment sent on idle streams so that proxies don't close them
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    // the client reconnects (with its Last-Event-ID) after it
+    private Duration timeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,89 @@
+package net.javaguide.springboottesting.warmup;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Counts employee lookups per id, the hottest ids are persisted on shutdown and preloaded on the next startup.
+ */
+@Component
+public class EmployeeAccessTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeAccessTracker.class);
+
+    private final Map<Long, LongAdder> accessCounts = new ConcurrentHashMap<>();
+    private final WarmUpProperties properties;
+
+    public EmployeeAccessTracker(WarmUpProperties properties) {
+        this.properties = properties;
+    }
+
+    public void recordAccess(long employeeId) {
+        LongAdder counter = accessCounts.get(employeeId);
+        if (counter == null) {
+            if (accessCounts.size() >= properties.getMaxTrackedIds()) {
+                return;
+            }
+            counter = accessCounts.computeIfAbsent(employeeId, id -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    public List<Long> hottestIds(int limit) {
+        return accessCounts.entrySet().stream()
+                .sorted(Map.Entry.<Long, LongAdder>comparingByValue(
+                        (a, b) -> Long.compare(b.sum(), a.sum())))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @PreDestroy
+    public void writeSnapshot() {
+        List<Long> hottestIds = hottestIds(properties.getTopN());
+        if (hottestIds.isEmpty()) {
+            return;
+        }
+        Path snapshotFile = properties.getSnapshotFile();
+        try (BufferedWriter writer = Files.newBufferedWriter(snapshotFile)) {
+            for (Long id : hottestIds) {
+                writer.write(id + "," + accessCounts.get(id).sum());
+                writer.newLine();
+            }
+        } catch (IOException ex) {
+            log.warn("Could not write access snapshot {}", snapshotFile, ex);
+        }
+    }
+
+    /**
+     * Ids of the last snapshot, hottest first. Empty when there is no snapshot yet.
+     */
+    public List<Long> readSnapshot(int limit) {
+        Path snapshotFile = properties.getSnapshotFile();
+        if (!Files.isReadable(snapshotFile)) {
+            return Collections.emptyList();
+        }
+        try (Stream<String> lines = Files.lines(snapshotFile)) {
+            return lines.filter(line -> !line.isBlank())
+                    .limit(limit)
+                    .map(line -> Long.valueOf(line.substring(0, line.indexOf(',')).trim()))
+                    .toList();
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Ignoring unreadable access snapshot {}", snapshotFile, ex);
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package net.javaguide.springboottesting.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.javaguide.springboottesting.model.Employee;
+import net.javaguide.springboottesting.repository.EmployeeRepository;
+import net.javaguide.springboottesting.service.EmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Preloads the hottest employees and exercises the repository queries and Jackson serializers before the
+ * application starts accepting traffic : Spring Boot reports readiness only after all runners have completed.
+ */
+@Component
+public class EmployeeWarmUp implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeWarmUp.class);
+
+    private final EmployeeService employeeService;
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeAccessTracker accessTracker;
+    private final ObjectMapper objectMapper;
+    private final WarmUpProperties properties;
+    private final Timer warmUpTimer;
+    private final AtomicInteger warmedEmployees;
+
+    public EmployeeWarmUp(EmployeeService employeeService,
+                          EmployeeRepository employeeRepository,
+                          EmployeeAccessTracker accessTracker,
+                          ObjectMapper objectMapper,
+                          WarmUpProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.employeeService = employeeService;
+        this.employeeRepository = employeeRepository;
+        this.accessTracker = accessTracker;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.warmUpTimer = Timer.builder("employee.warmup.duration")
+                .description("Time spent warming up before reporting readiness")
+                .register(meterRegistry);
+        this.warmedEmployees = meterRegistry.gauge("employee.warmup.employees", new AtomicInteger());
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        warmUpTimer.record(this::warmUpWithTimeout);
+    }
+
+    // a lookup stuck on the database must not hold readiness : the warm-up runs on its own thread, which is
+    // interrupted and abandoned at the timeout
+    private void warmUpWithTimeout() {
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Future<?> warmUp = executor.submit(this::warmUp);
+        try {
+            warmUp.get(properties.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            warmUp.cancel(true);
+            log.warn("Warm-up timed out after {} with {} employees", properties.getTimeout(), warmedEmployees.get());
+        } catch (InterruptedException ex) {
+            warmUp.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Warm-up failed", ex.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void warmUp() {
+        long deadline = System.nanoTime() + properties.getTimeout().toNanos();
+
+        List<Long> ids = accessTracker.readSnapshot(properties.getTopN());
+        if (ids.isEmpty()) {
+            // no snapshot yet (first deploy) : fall back to the first page of employees
+            ids = employeeRepository.findAll(PageRequest.of(0, properties.getTopN(), Sort.by("id"))).stream()
+                    .map(Employee::getId)
+                    .toList();
+        }
+
+        List<Employee> employees = new ArrayList<>();
+        for (Long id : ids) {
+            if (System.nanoTime() > deadline || Thread.currentThread().isInterrupted()) {
+                log.warn("Warm-up timed out after {} of {} employees", employees.size(), ids.size());
+                break;
+            }
+            Optional<Employee> employee = employeeService.getEmployeeById(id);
+            employee.ifPresent(employees::add);
+            warmedEmployees.set(employees.size());
+        }
+
+        if (!employees.isEmpty() && System.nanoTime() <= deadline) {
+            exerciseQueries(employees.get(0));
+            exerciseSerializers(employees);
+        }
+        log.info("Warm-up completed with {} employees", employees.size());
+    }
+
+    private void exerciseQueries(Employee employee) {
+        employeeRepository.findByEmail(employee.getEmail());
+        employeeRepository.findByJPQL(employee.getFirstName(), employee.getLastName());
+        employeeRepository.findByJPQLNamedParams(employee.getFirstName(), employee.getLastName());
+        employeeRepository.findByNativeSQL(employee.getFirstName(), employee.getLastName());
+        employeeRepository.findByNativeSQLNamedParams(employee.getFirstName(), employee.getLastName());
+    }
+
+    private void exerciseSerializers(List<Employee> employees) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(employees);
+            objectMapper.readValue(json, Employee[].class);
+            objectMapper.writeValueAsBytes(employees.get(0));
+        } catch (IOException ex) {
+            log.warn("Serializer warm-up failed", ex);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package net.javaguide.springboottesting.warmup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Training run for the CDS archive : start, warm up, then exit so the JVM dumps the loaded classes.
+ * <pre>
+ * java -XX:ArchiveClassesAtExit=app.jsa -Demployee.startup.exit-on-ready=true -jar app.jar
+ * java -XX:SharedArchiveFile=app.jsa -jar app.jar
+ * </pre>
+ * The property is read when the application is ready rather than through a condition : with Spring AOT the
+ * conditions are evaluated when the application is built, not when the training run starts.
+ */
+@Component
+public class TrainingRunListener implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(TrainingRunListener.class);
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!event.getApplicationContext().getEnvironment()
+                .getProperty("employee.startup.exit-on-ready", Boolean.class, false)) {
+            return;
+        }
+        log.info("Training run completed in {} ms, exiting", event.getTimeTaken().toMillis());
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
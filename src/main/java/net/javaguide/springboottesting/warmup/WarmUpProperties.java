@@ -0,0 +1,28 @@
+package net.javaguide.springboottesting.warmup;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.warmup")
+public class WarmUpProperties {
+
+    private boolean enabled = true;
+
+    // number of hottest employees preloaded at startup
+    private int topN = 1000;
+
+    // upper bound of the warm-up, readiness is reported when it completes or times out
+    private Duration timeout = Duration.ofSeconds(30);
+
+    // access-frequency snapshot, written on shutdown and read on the next startup
+    private Path snapshotFile = Path.of(System.getProperty("java.io.tmpdir"), "employee-access-snapshot.csv");
+
+    // distinct ids tracked between snapshots, bounds the tracker memory
+    private int maxTrackedIds = 100_000;
+}
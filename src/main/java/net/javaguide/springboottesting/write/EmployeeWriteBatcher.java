@@ -0,0 +1,210 @@
+package net.javaguide.springboottesting.write;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.javaguide.springboottesting.cache.CacheConfig;
+import net.javaguide.springboottesting.directory.EmployeeDirectory;
+import net.javaguide.springboottesting.exception.EmailConstraint;
+import net.javaguide.springboottesting.exception.EmployeeAlreadyExistsException;
+import net.javaguide.springboottesting.model.Employee;
+import net.javaguide.springboottesting.repository.EmployeeRepository;
+import net.javaguide.springboottesting.stream.EmployeeChangeBroadcaster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit of employee writes : callers enqueue a write and get a future, a single writer thread drains the
+ * queue and commits up to {@code maxBatchSize} writes per transaction. The future completes when the batch is
+ * committed, or exceptionally for the writes of the batch that failed.
+ */
+public class EmployeeWriteBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeWriteBatcher.class);
+
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final EmployeeDirectory employeeDirectory;
+    private final EmployeeChangeBroadcaster employeeChangeBroadcaster;
+    private final WriteBatchProperties properties;
+    private final BlockingQueue<PendingWrite> queue;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public EmployeeWriteBatcher(EmployeeRepository employeeRepository,
+                                TransactionTemplate transactionTemplate,
+                                CacheManager cacheManager,
+                                EmployeeDirectory employeeDirectory,
+                                EmployeeChangeBroadcaster employeeChangeBroadcaster,
+                                WriteBatchProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.employeeRepository = employeeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.employeeDirectory = employeeDirectory;
+        this.employeeChangeBroadcaster = employeeChangeBroadcaster;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.batchSizes = DistributionSummary.builder("employee.write.batch.size")
+                .description("Writes committed per transaction")
+                .register(meterRegistry);
+        Gauge.builder("employee.write.queue.size", queue, BlockingQueue::size)
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<Employee> save(Employee employee) {
+        return enqueue(new PendingWrite(employee, false));
+    }
+
+    public CompletableFuture<Employee> update(Employee employee) {
+        return enqueue(new PendingWrite(employee, true));
+    }
+
+    private CompletableFuture<Employee> enqueue(PendingWrite write) {
+        if (!running || !queue.offer(write)) {
+            throw new TaskRejectedException("Employee write queue is full");
+        }
+        return write.result;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::drain, "employee-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(properties.getMaxWait().toMillis() + 10_000);
+    }
+
+    private void drain() {
+        List<PendingWrite> batch = new ArrayList<>(properties.getMaxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + properties.getMaxWait().toNanos();
+                while (batch.size() < properties.getMaxBatchSize()) {
+                    PendingWrite next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException ex) {
+                log.error("Employee write batch failed", ex);
+                batch.forEach(write -> write.result.completeExceptionally(ex));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        List<PendingWrite> accepted = rejectDuplicateEmails(batch);
+        if (accepted.isEmpty()) {
+            return;
+        }
+        try {
+            List<Employee> saved = transactionTemplate.execute(status -> saveAll(accepted));
+            batchSizes.record(accepted.size());
+            for (int i = 0; i < accepted.size(); i++) {
+                accepted.get(i).result.complete(saved.get(i));
+            }
+        } catch (RuntimeException ex) {
+            // one write broke the whole transaction (e.g. a concurrent duplicate email) : retry them one by one
+            // so that only the failing writes are reported
+            log.warn("Employee write batch of {} failed, retrying writes individually", accepted.size(), ex);
+            for (PendingWrite write : accepted) {
+                try {
+                    List<Employee> saved = transactionTemplate.execute(status -> saveAll(List.of(write)));
+                    batchSizes.record(1);
+                    write.result.complete(saved.get(0));
+                } catch (RuntimeException writeEx) {
+                    write.result.completeExceptionally(EmailConstraint.isViolatedBy(writeEx)
+                            ? new EmployeeAlreadyExistsException(write.employee().getEmail()) : writeEx);
+                }
+            }
+        }
+    }
+
+    private List<Employee> saveAll(List<PendingWrite> writes) {
+        List<Employee> employees = writes.stream().map(PendingWrite::employee).toList();
+        List<Employee> saved = employeeRepository.saveAll(employees);
+        // applied by the directory and published to the stream when the transaction commits, like the writes of
+        // EmployeeService
+        for (int i = 0; i < saved.size(); i++) {
+            employeeDirectory.put(saved.get(i));
+            if (writes.get(i).update()) {
+                employeeChangeBroadcaster.updated(saved.get(i));
+            } else {
+                employeeChangeBroadcaster.created(saved.get(i));
+            }
+        }
+
+        // same eviction as EmployeeService.updateEmployee, deferred by the cache until the transaction commits
+        Cache cache = cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        if (cache != null) {
+            writes.stream().filter(PendingWrite::update).forEach(write -> cache.evict(write.employee().getId()));
+        }
+        return saved;
+    }
+
+    // creates with an email that exists already or appears earlier in the same batch fail individually
+    private List<PendingWrite> rejectDuplicateEmails(List<PendingWrite> batch) {
+        Set<String> createEmails = new HashSet<>();
+        batch.stream().filter(write -> !write.update()).forEach(write -> createEmails.add(write.employee().getEmail()));
+        Set<String> existingEmails = new HashSet<>();
+        if (!createEmails.isEmpty()) {
+            employeeRepository.findByEmailIn(createEmails).forEach(employee -> existingEmails.add(employee.getEmail()));
+        }
+
+        List<PendingWrite> accepted = new ArrayList<>(batch.size());
+        Set<String> batchEmails = new HashSet<>();
+        for (PendingWrite write : batch) {
+            String email = write.employee().getEmail();
+            if (!write.update() && (existingEmails.contains(email) || !batchEmails.add(email))) {
+                write.result.completeExceptionally(new EmployeeAlreadyExistsException(email));
+            } else {
+                accepted.add(write);
+            }
+        }
+        return accepted;
+    }
+
+    private record PendingWrite(Employee employee, boolean update, CompletableFuture<Employee> result) {
+
+        PendingWrite(Employee employee, boolean update) {
+            this(employee, update, new CompletableFuture<>());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package net.javaguide.springboottesting.write;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.javaguide.springboottesting.directory.EmployeeDirectory;
+import net.javaguide.springboottesting.repository.EmployeeRepository;
+import net.javaguide.springboottesting.stream.EmployeeChangeBroadcaster;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableConfigurationProperties(WriteBatchProperties.class)
+@ConditionalOnProperty(name = "employee.write.async.enabled", havingValue = "true")
+public class WriteBatchConfig {
+
+    @Bean
+    public EmployeeWriteBatcher employeeWriteBatcher(EmployeeRepository employeeRepository,
+                                                     PlatformTransactionManager transactionManager,
+                                                     CacheManager cacheManager,
+                                                     EmployeeDirectory employeeDirectory,
+                                                     EmployeeChangeBroadcaster employeeChangeBroadcaster,
+                                                     WriteBatchProperties properties,
+                                                     MeterRegistry meterRegistry) {
+        return new EmployeeWriteBatcher(employeeRepository, new TransactionTemplate(transactionManager),
+                cacheManager, employeeDirectory, employeeChangeBroadcaster, properties, meterRegistry);
+    }
+}
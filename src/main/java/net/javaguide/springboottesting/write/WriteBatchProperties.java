@@ -0,0 +1,24 @@
+package net.javaguide.springboottesting.write;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "employee.write.async")
+public class WriteBatchProperties {
+
+    private boolean enabled = false;
+
+    // pending writes, further writes are rejected with 503 (backpressure)
+    private int queueCapacity = 10_000;
+
+    // writes committed in one transaction
+    private int maxBatchSize = 500;
+
+    // time the writer waits for more writes before committing a batch that isn't full
+    private Duration maxWait = Duration.ofMillis(5);
+}
@@ -0,0 +1,7 @@
+-- findByEmail (and the duplicate email check of saveEmployee), findByJPQL / findByNativeSQL families.
+-- Online DDL : the indexes are built in place while reads and writes continue (fails instead of locking the table).
+-- Duplicate emails must be cleaned up before this migration, the unique index rejects them.
+ALTER TABLE employees
+    ADD UNIQUE INDEX ux_employees_email (email),
+    ADD INDEX ix_employees_first_name_last_name (first_name, last_name),
+    ALGORITHM = INPLACE, LOCK = NONE;
@@ -0,0 +1,11 @@
+-- responses of POST requests sent with an Idempotency-Key header, replayed on retries until they expire
+CREATE TABLE idempotency_keys
+(
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash    VARCHAR(64)  NOT NULL,
+    status_code     INT          NOT NULL,
+    response_body   LONGBLOB,
+    expires_at      DATETIME(6)  NOT NULL,
+    PRIMARY KEY (idempotency_key),
+    INDEX ix_idempotency_keys_expires_at (expires_at)
+) ENGINE = InnoDB;
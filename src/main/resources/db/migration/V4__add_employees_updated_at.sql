@@ -0,0 +1,6 @@
+-- change tracking of the incremental rebuilds of the columnar snapshot (employee.snapshot.*), maintained by MySQL
+-- for every write path (JPA, CSV import upserts). Not mapped by the Employee entity.
+ALTER TABLE employees
+    ADD COLUMN updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    ADD INDEX ix_employees_updated_at (updated_at),
+    ALGORITHM = INPLACE, LOCK = NONE;
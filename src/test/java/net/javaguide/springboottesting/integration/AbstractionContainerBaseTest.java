@@ -1,25 +1,71 @@
 package net.javaguide.springboottesting.integration;
 
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
 import org.springframework.test.context.DynamicPropertyRegistry;
-import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.utility.DockerImageName;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * One MySQL container for the whole suite, the test classes run in parallel each in its own database.
+ * <p>
+ * The container is kept between runs when reuse is enabled on the machine
+ * ({@code testcontainers.reuse.enable=true} in {@code ~/.testcontainers.properties}), its data directory is a tmpfs
+ * and the durability settings are relaxed : nothing has to survive a crash.
+ * <p>
+ * Each subclass registers its database from a {@code @DynamicPropertySource} method calling
+ * {@link #registerDatabase(DynamicPropertyRegistry, String)}, Flyway migrates it when the context starts. It also
+ * declares a {@code @ResourceLock} on its database : the classes run in parallel, the methods of a class one at a
+ * time since they share its database (and its Hibernate statistics).
+ */
+@Execution(ExecutionMode.CONCURRENT)
 public abstract class AbstractionContainerBaseTest {
 
-    static final MySQLContainer MY_SQL_CONTAINER;
+    // pinned : a new MySQL release must not change the test results (or their speed) silently
+    static final DockerImageName MYSQL_IMAGE = DockerImageName.parse("mysql:8.0.36");
+
+    static final MySQLContainer<?> MY_SQL_CONTAINER;
 
     static {
-        MY_SQL_CONTAINER = new MySQLContainer("mysql:latest")
+        MY_SQL_CONTAINER = new MySQLContainer<>(MYSQL_IMAGE)
                 .withUsername("username")
                 .withPassword("password")
-                .withDatabaseName("ems");
+                .withDatabaseName("ems")
+                .withTmpFs(Map.of("/var/lib/mysql", "rw"))
+                .withCommand("--skip-log-bin",
+                        "--innodb-flush-log-at-trx-commit=0",
+                        "--innodb-doublewrite=OFF")
+                .withReuse(true);
 
         MY_SQL_CONTAINER.start();
     }
 
-    @DynamicPropertySource
-    public static void dynamicPropertySource(DynamicPropertyRegistry registry) {
-        registry.add("spring.datasource.url", MY_SQL_CONTAINER::getJdbcUrl);
+    /**
+     * Creates the database of a test class, dropping the one left in a reused container, and points the datasource
+     * to it.
+     */
+    protected static void registerDatabase(DynamicPropertyRegistry registry, String database) {
+        // the test user can only create tables in the ems database
+        try (Connection connection = DriverManager.getConnection(MY_SQL_CONTAINER.getJdbcUrl(), "root",
+                MY_SQL_CONTAINER.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + database);
+            statement.execute("CREATE DATABASE " + database);
+            statement.execute("GRANT ALL PRIVILEGES ON " + database + ".* TO '"
+                    + MY_SQL_CONTAINER.getUsername() + "'@'%'");
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not create the test database " + database, ex);
+        }
+
+        String url = "jdbc:mysql://" + MY_SQL_CONTAINER.getHost() + ":"
+                + MY_SQL_CONTAINER.getMappedPort(MySQLContainer.MYSQL_PORT) + "/" + database;
+        registry.add("spring.datasource.url", () -> url);
         registry.add("spring.datasource.username", MY_SQL_CONTAINER::getUsername);
         registry.add("spring.datasource.password", MY_SQL_CONTAINER::getPassword);
     }
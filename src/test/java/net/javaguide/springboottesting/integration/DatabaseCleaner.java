@@ -0,0 +1,31 @@
+package net.javaguide.springboottesting.integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import net.javaguide.springboottesting.directory.EmployeeDirectory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Empties the employees table between the tests of a non transactional test class, with one TRUNCATE instead of the
+ * select and delete per row of {@code deleteAll()}. The TRUNCATE bypasses Hibernate and restarts the ids, so the
+ * caches holding employees are cleared as well.
+ * <p>
+ * Not for {@code @DataJpaTest} classes : they roll back each test, and a TRUNCATE would commit it in MySQL.
+ */
+public final class DatabaseCleaner {
+
+    private DatabaseCleaner() {
+    }
+
+    public static void truncateEmployees(ApplicationContext context) {
+        context.getBean(JdbcTemplate.class).execute("TRUNCATE TABLE employees");
+        context.getBean(EntityManagerFactory.class).getCache().evictAll();
+        context.getBeanProvider(CacheManager.class).ifAvailable(cacheManager ->
+                cacheManager.getCacheNames().stream()
+                        .map(cacheManager::getCache)
+                        .forEach(Cache::clear));
+        context.getBeanProvider(EmployeeDirectory.class).ifAvailable(EmployeeDirectory::reload);
+    }
+}
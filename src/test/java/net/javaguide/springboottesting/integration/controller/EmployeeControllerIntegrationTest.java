@@ -1,6 +1,8 @@
 package net.javaguide.springboottesting.integration.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguide.springboottesting.idempotency.IdempotencyService;
+import net.javaguide.springboottesting.integration.DatabaseCleaner;
 import net.javaguide.springboottesting.model.Employee;
 import net.javaguide.springboottesting.repository.EmployeeRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,18 +11,23 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -36,9 +43,12 @@ public class EmployeeControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ApplicationContext context;
+
     @BeforeEach
     void setup() {
-        employeeRepository.deleteAll();
+        DatabaseCleaner.truncateEmployees(context);
     }
 
     @DisplayName("JUnit test for create(POST) employee REST API")
@@ -63,6 +73,34 @@ public class EmployeeControllerIntegrationTest {
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
     }
 
+    @DisplayName("JUnit test for create(POST) employee REST API - retry with the same Idempotency-Key")
+    @Test
+    public void givenIdempotencyKey_whenCreateEmployeeTwice_thenSaveOnceAndReplayResponse() throws Exception {
+        // given - precondition or setup
+        String idempotencyKey = UUID.randomUUID().toString();
+        Employee employee = Employee.builder()
+                .firstName("firstName")
+                .lastName("lastName")
+                .email("email@email.com").build();
+
+        // when - action or the behavior that we are going test
+        mockMvc.perform(post("/api/employees")
+                .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the output
+        response.andExpect(status().isCreated())
+                .andDo(print())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+        assertThat(employeeRepository.count()).isEqualTo(1);
+    }
+
     @DisplayName("JUnit test for Get All employees REST API")
     @Test
     public void givenListOfEmployees_whenGetAllEmployees_thenReturnEmployeeList() throws Exception {
@@ -79,7 +117,9 @@ public class EmployeeControllerIntegrationTest {
         employeeRepository.saveAll(listOfEmployees);
 
         // when - action or the behavior that we are going test
-        ResultActions response = mockMvc.perform(get("/api/employees"));
+        ResultActions response = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/employees"))
+                .andExpect(request().asyncStarted())
+                .andReturn()));
 
         // then - verify the output
         response.andExpect(status().isOk())
@@ -98,7 +138,9 @@ public class EmployeeControllerIntegrationTest {
         employeeRepository.save(employee);
 
         // when - action or the behavior that we are going test
-        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employee.getId()));
+        ResultActions response = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/employees/{id}", employee.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn()));
 
         // then - verify the output
         response.andExpect(status().isOk())
@@ -120,7 +162,9 @@ public class EmployeeControllerIntegrationTest {
         employeeRepository.save(employee);
 
         // when - action or the behavior that we are going test
-        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId));
+        ResultActions response = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/employees/{id}", employeeId))
+                .andExpect(request().asyncStarted())
+                .andReturn()));
 
         // then - verify the output
         response.andExpect(status().isNotFound())
@@ -181,6 +225,37 @@ public class EmployeeControllerIntegrationTest {
                 .andDo(print());
     }
 
+    @DisplayName("JUnit test for batch update(PUT) of employees REST API")
+    @Test
+    public void givenUpdatedEmployees_whenUpdateEmployees_thenAllAreUpdated() throws Exception {
+        // given - precondition or setup
+        List<Employee> updatedEmployees = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Employee savedEmployee = employeeRepository.save(Employee.builder()
+                    .firstName("firstName" + i)
+                    .lastName("lastName")
+                    .email("email" + i + "@email.com").build());
+            updatedEmployees.add(Employee.builder()
+                    .id(savedEmployee.getId())
+                    .firstName("updateFirstName" + i)
+                    .lastName("updateLastName")
+                    .email("updateEmail" + i + "@email.com").build());
+        }
+
+        // when - action or the behavior that we are going test
+        ResultActions response = mockMvc.perform(put("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployees)));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.rowsUpdated", is(3)));
+        assertThat(employeeRepository.findAll())
+                .extracting(Employee::getFirstName)
+                .containsExactlyInAnyOrder("updateFirstName0", "updateFirstName1", "updateFirstName2");
+    }
+
     @DisplayName("JUnit test for delete Employee REST API")
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenReturn200() throws Exception {
@@ -2,15 +2,20 @@ package net.javaguide.springboottesting.integration.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import net.javaguide.springboottesting.integration.AbstractionContainerBaseTest;
+import net.javaguide.springboottesting.integration.DatabaseCleaner;
 import net.javaguide.springboottesting.model.Employee;
 import net.javaguide.springboottesting.repository.EmployeeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceLock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
@@ -21,10 +26,12 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
+@ResourceLock("controller_it")
 public class EmployeeControllerTestcontainersIntegrationTestContainer extends AbstractionContainerBaseTest {
 
     @Autowired
@@ -36,9 +43,17 @@ public class EmployeeControllerTestcontainersIntegrationTestContainer extends Ab
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ApplicationContext context;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registerDatabase(registry, "controller_it");
+    }
+
     @BeforeEach
     void setup() {
-        employeeRepository.deleteAll();
+        DatabaseCleaner.truncateEmployees(context);
     }
 
     @DisplayName("JUnit test for create(POST) employee REST API")
@@ -79,7 +94,9 @@ public class EmployeeControllerTestcontainersIntegrationTestContainer extends Ab
         employeeRepository.saveAll(listOfEmployees);
 
         // when - action or the behavior that we are going test
-        ResultActions response = mockMvc.perform(get("/api/employees"));
+        ResultActions response = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/employees"))
+                .andExpect(request().asyncStarted())
+                .andReturn()));
 
         // then - verify the output
         response.andExpect(status().isOk())
@@ -98,7 +115,9 @@ public class EmployeeControllerTestcontainersIntegrationTestContainer extends Ab
         employeeRepository.save(employee);
 
         // when - action or the behavior that we are going test
-        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employee.getId()));
+        ResultActions response = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/employees/{id}", employee.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn()));
 
         // then - verify the output
         response.andExpect(status().isOk())
@@ -120,7 +139,9 @@ public class EmployeeControllerTestcontainersIntegrationTestContainer extends Ab
         employeeRepository.save(employee);
 
         // when - action or the behavior that we are going test
-        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId));
+        ResultActions response = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/employees/{id}", employeeId))
+                .andExpect(request().asyncStarted())
+                .andReturn()));
 
         // then - verify the output
         response.andExpect(status().isNotFound())
@@ -30,7 +30,8 @@ class EmployeeRepositoryIntegrationTest {
                 .lastName("lastname")
                 .email("email@email.com").build();
 
-        employeeRepository.deleteAll();
+        // one DELETE statement, rolled back with the test, the database is shared with the controller tests
+        employeeRepository.deleteAllInBatch();
     }
 
     @DisplayName("JUnit test for save employee operation")
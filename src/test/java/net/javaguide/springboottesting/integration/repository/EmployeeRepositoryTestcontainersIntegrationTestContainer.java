@@ -6,17 +6,22 @@ import net.javaguide.springboottesting.repository.EmployeeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceLock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ResourceLock("repository_it")
 class EmployeeRepositoryTestcontainersIntegrationTestContainer extends AbstractionContainerBaseTest {
 
     @Autowired
@@ -24,14 +29,17 @@ class EmployeeRepositoryTestcontainersIntegrationTestContainer extends Abstracti
 
     private Employee employee;
 
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registerDatabase(registry, "repository_it");
+    }
+
     @BeforeEach
     public void setup() {
         employee = Employee.builder()
                 .firstName("firstname")
                 .lastName("lastname")
                 .email("email@email.com").build();
-
-        employeeRepository.deleteAll();
     }
 
     @DisplayName("JUnit test for save employee operation")
@@ -179,4 +187,33 @@ class EmployeeRepositoryTestcontainersIntegrationTestContainer extends Abstracti
         // then - verify the output
         assertThat(savedEmployee).isNotNull();
     }
+
+    @DisplayName("JUnit test for id range aggregation queries")
+    @Test
+    public void givenEmployees_whenAggregateIdRange_thenCountOnlyTheRange() {
+        // given - precondition or setup
+        Employee employee1 = employeeRepository.save(Employee.builder()
+                .firstName("Ramesh")
+                .lastName("Fadatare")
+                .email("ramesh@gmail.com").build());
+        employeeRepository.save(Employee.builder()
+                .firstName("John")
+                .lastName("Cena")
+                .email("john@GMAIL.com").build());
+        Employee employee3 = employeeRepository.save(Employee.builder()
+                .firstName("Tony")
+                .lastName("Stark")
+                .email("tony@stark.com").build());
+
+        // when - action or the behavior that we are going test
+        long count = employeeRepository.countByIdBetween(employee1.getId(), employee3.getId() - 1);
+        List<EmployeeRepository.GroupCount> domains =
+                employeeRepository.countByEmailDomainInIdRange(employeeRepository.findMinId(),
+                        employeeRepository.findMaxId());
+
+        // then - verify the output
+        assertThat(count).isEqualTo(2);
+        assertThat(domains).extracting(EmployeeRepository.GroupCount::getKey, EmployeeRepository.GroupCount::getCount)
+                .containsExactlyInAnyOrder(tuple("gmail.com", 2L), tuple("stark.com", 1L));
+    }
 }
\ No newline at end of file
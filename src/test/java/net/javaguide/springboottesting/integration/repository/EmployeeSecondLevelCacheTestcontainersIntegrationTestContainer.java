@@ -0,0 +1,109 @@
+package net.javaguide.springboottesting.integration.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import net.javaguide.springboottesting.integration.AbstractionContainerBaseTest;
+import net.javaguide.springboottesting.integration.DatabaseCleaner;
+import net.javaguide.springboottesting.model.Employee;
+import net.javaguide.springboottesting.repository.EmployeeRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceLock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// not @DataJpaTest : every repository call must run in its own transaction/session to go through the second-level cache
+@SpringBootTest
+@ResourceLock("second_level_cache_it")
+class EmployeeSecondLevelCacheTestcontainersIntegrationTestContainer extends AbstractionContainerBaseTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private Statistics statistics;
+
+    private Employee employee;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registerDatabase(registry, "second_level_cache_it");
+    }
+
+    @BeforeEach
+    public void setup() {
+        DatabaseCleaner.truncateEmployees(context);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        employee = employeeRepository.save(Employee.builder()
+                .firstName("firstname")
+                .lastName("lastname")
+                .email("email@email.com").build());
+    }
+
+    @DisplayName("JUnit test for second-level cache - findById is served from the cache")
+    @Test
+    public void givenCachedEmployee_whenFindById_thenHitSecondLevelCache() {
+        // given - precondition or setup
+        employeeRepository.findById(employee.getId());
+
+        // when - action or the behavior that we are going test
+        Optional<Employee> cachedEmployee = employeeRepository.findById(employee.getId());
+
+        // then - verify the output
+        assertThat(cachedEmployee).isPresent();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(0);
+    }
+
+    @DisplayName("JUnit test for second-level cache - no stale read after update")
+    @Test
+    public void givenCachedEmployee_whenUpdate_thenReturnUpdatedEmployee() {
+        // given - precondition or setup
+        employeeRepository.findById(employee.getId());
+        employeeRepository.findByEmail("email@email.com");
+
+        // when - action or the behavior that we are going test
+        Employee savedEmployee = employeeRepository.findById(employee.getId()).get();
+        savedEmployee.setEmail("updated@email.com");
+        savedEmployee.setFirstName("updatedFirstname");
+        employeeRepository.save(savedEmployee);
+
+        // then - verify the output
+        assertThat(employeeRepository.findById(employee.getId()).get().getEmail()).isEqualTo("updated@email.com");
+        assertThat(employeeRepository.findByEmail("email@email.com")).isEmpty();
+        assertThat(employeeRepository.findByEmail("updated@email.com")).isPresent();
+        assertThat(employeeRepository.findByJPQL("firstname", "lastname")).isNull();
+        assertThat(employeeRepository.findByJPQL("updatedFirstname", "lastname")).isNotNull();
+    }
+
+    @DisplayName("JUnit test for second-level cache - no stale read after delete")
+    @Test
+    public void givenCachedEmployee_whenDelete_thenReturnEmpty() {
+        // given - precondition or setup
+        employeeRepository.findById(employee.getId());
+        employeeRepository.findByEmail("email@email.com");
+
+        // when - action or the behavior that we are going test
+        employeeRepository.deleteById(employee.getId());
+
+        // then - verify the output
+        assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+        assertThat(employeeRepository.findByEmail("email@email.com")).isEmpty();
+    }
+}
@@ -0,0 +1,134 @@
+package net.javaguide.springboottesting.performance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguide.springboottesting.aggregate.AggregateConfig;
+import net.javaguide.springboottesting.aggregate.AggregateProperties;
+import net.javaguide.springboottesting.aggregate.EmployeeAggregator;
+import net.javaguide.springboottesting.integration.AbstractionContainerBaseTest;
+import net.javaguide.springboottesting.repository.EmployeeRepository;
+import net.javaguide.springboottesting.snapshot.SnapshotColumn;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Scaling of the parallel id range aggregations (EmployeeAggregator) from 1 to 16 workers over 1M employees. Each
+ * parallelism gets its own pool, built like the aggregate pool of the application. Excluded from the default build :
+ * {@code ./mvnw -Pperformance test}, the median durations are written to
+ * {@code target/performance/aggregate-scaling.json}.
+ */
+@Tag("performance")
+@Isolated
+@SpringBootTest(properties = {
+        "employee.snapshot.enabled=false",
+        // one connection per worker at the highest parallelism, plus the min / max id lookups
+        "spring.datasource.hikari.maximum-pool-size=20"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EmployeeAggregateScalingTest extends AbstractionContainerBaseTest {
+
+    private static final int DATASET_SIZE = 1_000_000;
+    private static final int ROWS_PER_INSERT = 1_000;
+    private static final int[] PARALLELISMS = {1, 2, 4, 8, 16};
+    private static final int WARMUP_RUNS = 2;
+    private static final int RUNS = 5;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registerDatabase(registry, "aggregate_performance");
+    }
+
+    // multi-row inserts, one statement per thousand employees
+    @BeforeAll
+    void generateDataset() {
+        String values = ",(?,?,?)".repeat(ROWS_PER_INSERT).substring(1);
+        String sql = "INSERT INTO employees (first_name, last_name, email) VALUES " + values;
+        for (int first = 0; first < DATASET_SIZE; first += ROWS_PER_INSERT) {
+            List<Object> args = new ArrayList<>(3 * ROWS_PER_INSERT);
+            for (int n = first; n < first + ROWS_PER_INSERT; n++) {
+                args.add("firstname" + n);
+                args.add("lastname" + n % 1000);
+                args.add("employee" + n + "@domain" + n % 100 + ".example.com");
+            }
+            jdbcTemplate.update(sql, args.toArray());
+        }
+    }
+
+    @DisplayName("Performance test for the parallel stats aggregation, 1 to 16 workers")
+    @Test
+    public void givenOneMillionEmployees_whenAggregateStatsWithMoreWorkers_thenFaster() throws Exception {
+        // given - precondition or setup
+        Map<Integer, Long> medianMillis = new LinkedHashMap<>();
+
+        // when - action or the behavior that we are going test
+        for (int parallelism : PARALLELISMS) {
+            medianMillis.put(parallelism, medianMillis(parallelism));
+        }
+        Path reportDirectory = Files.createDirectories(Path.of("target", "performance"));
+        objectMapper.writerWithDefaultPrettyPrinter()
+                .writeValue(reportDirectory.resolve("aggregate-scaling.json").toFile(), Map.of(
+                        "datasetSize", DATASET_SIZE,
+                        "availableProcessors", Runtime.getRuntime().availableProcessors(),
+                        "medianMillisByParallelism", medianMillis));
+
+        // then - verify the output
+        assumeTrue(Runtime.getRuntime().availableProcessors() >= 4, "the speedup needs 4 cores");
+        assertThat(medianMillis.get(4) * 2).as("4 workers at least twice as fast as 1")
+                .isLessThanOrEqualTo(medianMillis.get(1));
+    }
+
+    private long medianMillis(int parallelism) {
+        AggregateProperties properties = new AggregateProperties();
+        properties.setParallelism(parallelism);
+        // at least 16 ranges, so that every parallelism has work for all its workers
+        properties.setChunkSize(DATASET_SIZE / 32);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ForkJoinPool pool = new AggregateConfig().aggregatePool(properties, meterRegistry);
+        try {
+            EmployeeAggregator aggregator = new EmployeeAggregator(employeeRepository, pool, properties,
+                    meterRegistry);
+            for (int run = 0; run < WARMUP_RUNS; run++) {
+                aggregator.stats(SnapshotColumn.EMAIL_DOMAIN, 10);
+            }
+            long[] millis = new long[RUNS];
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                aggregator.stats(SnapshotColumn.EMAIL_DOMAIN, 10);
+                millis[run] = (System.nanoTime() - start) / 1_000_000;
+            }
+            Arrays.sort(millis);
+            return millis[RUNS / 2];
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package net.javaguide.springboottesting.performance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import net.javaguide.springboottesting.integration.AbstractionContainerBaseTest;
+import net.javaguide.springboottesting.model.Employee;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Per endpoint budgets of the employee lookups and updates, under a fixed dataset of 1M employees. Excluded from the
+ * default build : {@code ./mvnw -Pperformance test}, the reports are written to {@code target/performance}.
+ * <p>
+ * The statement budgets are exact, the allocation and p99 ones leave room for the noise of the build machines.
+ */
+@Tag("performance")
+@Isolated
+@SpringBootTest(properties = {
+        // the budgets are about the work done per call, not about the admission of the calls
+        "employee.limits.enabled=false",
+        // no full scan of the dataset in the background of the measurements
+        "employee.snapshot.enabled=false"})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EmployeePerformanceTest extends AbstractionContainerBaseTest {
+
+    private static final int DATASET_SIZE = 1_000_000;
+    private static final int ROWS_PER_INSERT = 1_000;
+    private static final int WARMUP_CALLS = 2_000;
+    private static final int CALLS = 5_000;
+    private static final long SEED = 42;
+    // rows of the batch update comparison, a batch of the largest size accepted
+    private static final int BATCH_ROWS = 10_000;
+
+    private static final EndpointBudget GET_EMPLOYEE_BY_ID =
+            new EndpointBudget("getEmployeeById", 1, 256 * 1024, 20);
+    private static final EndpointBudget GET_EMPLOYEE_BY_EMAIL =
+            new EndpointBudget("getEmployeeByEmail", 1, 256 * 1024, 20);
+    // the lookup of the employee and its update
+    private static final EndpointBudget UPDATE_EMPLOYEE =
+            new EndpointBudget("updateEmployee", 2, 256 * 1024, 40);
+    // the insert rejected by the unique email index, no lookup ahead of it
+    private static final EndpointBudget CREATE_DUPLICATE_EMPLOYEE =
+            new EndpointBudget("createDuplicateEmployee", 1, 256 * 1024, 20);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private EndpointProbe probe;
+
+    private long firstId;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registerDatabase(registry, "performance");
+    }
+
+    // multi-row inserts, one statement per thousand employees
+    @BeforeAll
+    void generateDataset() {
+        String values = ",(?,?,?)".repeat(ROWS_PER_INSERT).substring(1);
+        String sql = "INSERT INTO employees (first_name, last_name, email) VALUES " + values;
+        for (int first = 0; first < DATASET_SIZE; first += ROWS_PER_INSERT) {
+            List<Object> args = new ArrayList<>(3 * ROWS_PER_INSERT);
+            for (int n = first; n < first + ROWS_PER_INSERT; n++) {
+                args.add("firstname" + n);
+                args.add("lastname" + n % 1000);
+                args.add(email(n));
+            }
+            jdbcTemplate.update(sql, args.toArray());
+        }
+        firstId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM employees", Long.class);
+
+        probe = new EndpointProbe(entityManagerFactory.unwrap(SessionFactory.class).getStatistics(), objectMapper,
+                Path.of("target", "performance"), DATASET_SIZE);
+    }
+
+    @DisplayName("Performance test for get employee by id REST API")
+    @Test
+    public void givenOneMillionEmployees_whenGetEmployeeById_thenWithinBudget() throws Exception {
+        // given - precondition or setup
+        SplittableRandom random = new SplittableRandom(SEED);
+
+        // when - action or the behavior that we are going test
+        EndpointReport report = probe.measure(GET_EMPLOYEE_BY_ID, WARMUP_CALLS, CALLS, iteration -> {
+            MvcResult result = mockMvc.perform(get("/api/employees/{id}", firstId + random.nextInt(DATASET_SIZE)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk());
+        });
+
+        // then - verify the output
+        assertWithinBudget(report);
+    }
+
+    @DisplayName("Performance test for get employee by email REST API")
+    @Test
+    public void givenOneMillionEmployees_whenGetEmployeeByEmail_thenWithinBudget() throws Exception {
+        // given - precondition or setup
+        SplittableRandom random = new SplittableRandom(SEED);
+
+        // when - action or the behavior that we are going test
+        EndpointReport report = probe.measure(GET_EMPLOYEE_BY_EMAIL, WARMUP_CALLS, CALLS, iteration ->
+                mockMvc.perform(get("/api/employees").param("email", email(random.nextInt(DATASET_SIZE))))
+                        .andExpect(status().isOk()));
+
+        // then - verify the output
+        assertWithinBudget(report);
+    }
+
+    @DisplayName("Performance test for update(PUT) employee REST API")
+    @Test
+    public void givenOneMillionEmployees_whenUpdateEmployee_thenWithinBudget() throws Exception {
+        // given - precondition or setup
+        SplittableRandom random = new SplittableRandom(SEED);
+
+        // when - action or the behavior that we are going test
+        EndpointReport report = probe.measure(UPDATE_EMPLOYEE, WARMUP_CALLS, CALLS, iteration -> {
+            int n = random.nextInt(DATASET_SIZE);
+            Employee employee = Employee.builder()
+                    .firstName("updated" + iteration)
+                    .lastName("lastname" + n % 1000)
+                    .email(email(n)).build();
+            mockMvc.perform(put("/api/employees/{id}", firstId + n)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(employee)))
+                    .andExpect(status().isOk());
+        });
+
+        // then - verify the output
+        assertWithinBudget(report);
+    }
+
+    @DisplayName("Performance test for save employee REST API - every email already taken")
+    @Test
+    public void givenOneMillionEmployees_whenCreateDuplicateEmployee_thenWithinBudget() throws Exception {
+        // given - precondition or setup
+        SplittableRandom random = new SplittableRandom(SEED);
+
+        // when - action or the behavior that we are going test
+        EndpointReport report = probe.measure(CREATE_DUPLICATE_EMPLOYEE, WARMUP_CALLS, CALLS, iteration -> {
+            int n = random.nextInt(DATASET_SIZE);
+            Employee employee = Employee.builder()
+                    .firstName("duplicate" + iteration)
+                    .lastName("lastname" + n % 1000)
+                    .email(email(n)).build();
+            mockMvc.perform(post("/api/employees")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(employee)))
+                    .andExpect(status().isConflict());
+        });
+
+        // then - verify the output
+        assertWithinBudget(report);
+    }
+
+    @DisplayName("Performance test for batch update(PUT) of employees REST API against one PUT per employee")
+    @Test
+    public void givenOneMillionEmployees_whenUpdateEmployeesInBatch_thenMoreRowsPerSecondThanOnePerRequest()
+            throws Exception {
+        // given - precondition or setup
+        // distinct ranges at the end of the dataset, the other tests update random employees
+        int singleFrom = DATASET_SIZE - 2 * BATCH_ROWS;
+        int batchFrom = DATASET_SIZE - BATCH_ROWS;
+        List<Employee> batch = new ArrayList<>(BATCH_ROWS);
+        for (int n = batchFrom; n < batchFrom + BATCH_ROWS; n++) {
+            batch.add(updated(n, "batch"));
+        }
+
+        // when - action or the behavior that we are going test
+        long start = System.nanoTime();
+        for (int n = singleFrom; n < singleFrom + BATCH_ROWS; n++) {
+            mockMvc.perform(put("/api/employees/{id}", firstId + n)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(updated(n, "single"))))
+                    .andExpect(status().isOk());
+        }
+        long singleRowsPerSecond = BATCH_ROWS * 1_000_000_000L / (System.nanoTime() - start);
+
+        start = System.nanoTime();
+        mockMvc.perform(put("/api/employees/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk());
+        long batchRowsPerSecond = BATCH_ROWS * 1_000_000_000L / (System.nanoTime() - start);
+
+        Path reportDirectory = Files.createDirectories(Path.of("target", "performance"));
+        objectMapper.writerWithDefaultPrettyPrinter()
+                .writeValue(reportDirectory.resolve("batchUpdateEmployees.json").toFile(), Map.of(
+                        "rows", BATCH_ROWS,
+                        "singleRowsPerSecond", singleRowsPerSecond,
+                        "batchRowsPerSecond", batchRowsPerSecond));
+
+        // then - verify the output
+        assertThat(batchRowsPerSecond).as("rows/s of PUT /api/employees/batch against one PUT per employee")
+                .isGreaterThan(singleRowsPerSecond);
+    }
+
+    private Employee updated(int n, String firstName) {
+        return Employee.builder()
+                .id(firstId + n)
+                .firstName(firstName + n)
+                .lastName("lastname" + n % 1000)
+                .email(email(n)).build();
+    }
+
+    private static String email(int n) {
+        return "employee" + n + "@perf.example.com";
+    }
+
+    private static void assertWithinBudget(EndpointReport report) {
+        EndpointBudget budget = report.budget();
+        assertSoftly(softly -> {
+            softly.assertThat(report.statementsPerCall()).as("%s SQL statements per call", budget.endpoint())
+                    .isLessThanOrEqualTo(budget.maxStatementsPerCall());
+            softly.assertThat(report.allocatedBytesPerCall()).as("%s bytes allocated per call", budget.endpoint())
+                    .isLessThanOrEqualTo(budget.maxAllocatedBytesPerCall());
+            softly.assertThat(report.p99Millis()).as("%s p99 latency (ms)", budget.endpoint())
+                    .isLessThanOrEqualTo(budget.maxP99Millis());
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package net.javaguide.springboottesting.performance;
+
+/**
+ * Per call limits of an endpoint, under the dataset of {@link EmployeePerformanceTest}.
+ */
+record EndpointBudget(String endpoint,
+                      double maxStatementsPerCall,
+                      long maxAllocatedBytesPerCall,
+                      double maxP99Millis) {
+}
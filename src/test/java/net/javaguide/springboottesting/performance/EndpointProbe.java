@@ -0,0 +1,118 @@
+package net.javaguide.springboottesting.performance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.stat.Statistics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Calls an endpoint after a warm-up and measures, per call, the SQL statements prepared by Hibernate, the bytes
+ * allocated by the calling thread and the service bulkhead threads (the async endpoints complete on them) and the
+ * latency percentiles. The allocations of the other threads (JIT, GC, Hikari housekeeping, schedulers) are left out.
+ * The statistics and the bulkhead are shared : no other request may run during a measurement.
+ */
+class EndpointProbe {
+
+    @FunctionalInterface
+    interface Call {
+        void run(int iteration) throws Exception;
+    }
+
+    // BulkheadConfig names the threads of each bulkhead after it
+    private static final String BULKHEAD_THREAD_PREFIX = "service-";
+
+    private final Statistics statistics;
+    private final com.sun.management.ThreadMXBean threadMXBean;
+    private final ObjectMapper objectMapper;
+    private final Path reportDirectory;
+    private final int datasetSize;
+
+    EndpointProbe(Statistics statistics, ObjectMapper objectMapper, Path reportDirectory, int datasetSize) {
+        this.statistics = statistics;
+        this.threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        this.objectMapper = objectMapper;
+        this.reportDirectory = reportDirectory;
+        this.datasetSize = datasetSize;
+    }
+
+    /**
+     * Measures {@code calls} calls after {@code warmupCalls} ones, and writes the report to
+     * {@code <reportDirectory>/<endpoint>.json}.
+     */
+    EndpointReport measure(EndpointBudget budget, int warmupCalls, int calls, Call call) throws Exception {
+        for (int i = 0; i < warmupCalls; i++) {
+            call.run(i);
+        }
+
+        long[] latencies = new long[calls];
+        statistics.clear();
+        Map<Long, Long> allocatedBefore = allocatedBytes();
+        for (int i = 0; i < calls; i++) {
+            long start = System.nanoTime();
+            call.run(warmupCalls + i);
+            latencies[i] = System.nanoTime() - start;
+        }
+        long allocated = allocatedBytesSince(allocatedBefore);
+        long statements = statistics.getPrepareStatementCount();
+
+        Arrays.sort(latencies);
+        EndpointReport report = new EndpointReport(budget.endpoint(), datasetSize, calls,
+                (double) statements / calls,
+                allocated / calls,
+                millis(percentile(latencies, 0.50)),
+                millis(percentile(latencies, 0.99)),
+                budget);
+        write(report);
+        return report;
+    }
+
+    private Map<Long, Long> allocatedBytes() {
+        long callerId = Thread.currentThread().getId();
+        long[] threadIds = Arrays.stream(threadMXBean.getThreadInfo(threadMXBean.getAllThreadIds()))
+                .filter(Objects::nonNull)
+                .filter(info -> info.getThreadId() == callerId
+                        || info.getThreadName().startsWith(BULKHEAD_THREAD_PREFIX))
+                .mapToLong(ThreadInfo::getThreadId)
+                .toArray();
+        long[] allocated = threadMXBean.getThreadAllocatedBytes(threadIds);
+        Map<Long, Long> allocatedBytes = new HashMap<>();
+        for (int i = 0; i < threadIds.length; i++) {
+            if (allocated[i] >= 0) {
+                allocatedBytes.put(threadIds[i], allocated[i]);
+            }
+        }
+        return allocatedBytes;
+    }
+
+    // threads started during the measurement count from zero, the ones that ended are lost (pooled threads do not)
+    private long allocatedBytesSince(Map<Long, Long> before) {
+        long total = 0;
+        for (Map.Entry<Long, Long> after : allocatedBytes().entrySet()) {
+            total += after.getValue() - before.getOrDefault(after.getKey(), 0L);
+        }
+        return total;
+    }
+
+    private static long percentile(long[] sortedValues, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedValues.length) - 1;
+        return sortedValues[Math.max(index, 0)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private void write(EndpointReport report) throws IOException {
+        Files.createDirectories(reportDirectory);
+        objectMapper.writerWithDefaultPrettyPrinter()
+                .writeValue(reportDirectory.resolve(report.endpoint() + ".json").toFile(), report);
+    }
+}
@@ -0,0 +1,24 @@
+package net.javaguide.springboottesting.performance;
+
+/**
+ * Measurements of an endpoint, written as JSON next to its budget so that the reports of successive builds can be
+ * compared.
+ */
+record EndpointReport(String endpoint,
+                      int datasetSize,
+                      int calls,
+                      double statementsPerCall,
+                      long allocatedBytesPerCall,
+                      double p50Millis,
+                      double p99Millis,
+                      EndpointBudget budget,
+                      boolean withinBudget) {
+
+    EndpointReport(String endpoint, int datasetSize, int calls, double statementsPerCall,
+                   long allocatedBytesPerCall, double p50Millis, double p99Millis, EndpointBudget budget) {
+        this(endpoint, datasetSize, calls, statementsPerCall, allocatedBytesPerCall, p50Millis, p99Millis, budget,
+                statementsPerCall <= budget.maxStatementsPerCall()
+                        && allocatedBytesPerCall <= budget.maxAllocatedBytesPerCall()
+                        && p99Millis <= budget.maxP99Millis());
+    }
+}
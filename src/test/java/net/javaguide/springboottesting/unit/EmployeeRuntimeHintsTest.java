@@ -0,0 +1,29 @@
+package net.javaguide.springboottesting.unit;
+
+import net.javaguide.springboottesting.EmployeeRuntimeHints;
+import net.javaguide.springboottesting.model.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeRuntimeHintsTest {
+
+    @DisplayName("JUnit test for runtime hints of the native image build")
+    @Test
+    public void givenRegistrar_whenRegisterHints_thenEmployeeIsReflectiveAndSerializable() {
+        // given - precondition or setup
+        RuntimeHints hints = new RuntimeHints();
+
+        // when - action or the behavior that we are going test
+        new EmployeeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // then - verify the output
+        assertThat(RuntimeHintsPredicates.reflection().onType(Employee.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(Employee.EmployeeBuilder.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.serialization().onType(Employee.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("application.conf")).accepts(hints);
+    }
+}
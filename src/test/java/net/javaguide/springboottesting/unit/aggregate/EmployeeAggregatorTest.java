@@ -0,0 +1,133 @@
+package net.javaguide.springboottesting.unit.aggregate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguide.springboottesting.aggregate.AggregateProperties;
+import net.javaguide.springboottesting.aggregate.EmployeeAggregator;
+import net.javaguide.springboottesting.repository.EmployeeRepository;
+import net.javaguide.springboottesting.snapshot.EmployeeStats;
+import net.javaguide.springboottesting.snapshot.SnapshotColumn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeAggregatorTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private ForkJoinPool pool;
+
+    private EmployeeAggregator employeeAggregator;
+
+    @BeforeEach
+    public void setup() {
+        AggregateProperties properties = new AggregateProperties();
+        properties.setChunkSize(10);
+        pool = new ForkJoinPool(4);
+        employeeAggregator = new EmployeeAggregator(employeeRepository, pool, properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @DisplayName("JUnit test for count method")
+    @Test
+    public void givenIdRange_whenCount_thenSumTheCountsOfAllChunks() {
+        // given - precondition or setup
+        given(employeeRepository.findMinId()).willReturn(1L);
+        given(employeeRepository.findMaxId()).willReturn(80L);
+        given(employeeRepository.countByIdBetween(anyLong(), anyLong()))
+                .willAnswer(invocation -> (long) invocation.getArgument(1) - (long) invocation.getArgument(0) + 1);
+
+        // when - action or the behavior that we are going test
+        long count = employeeAggregator.count();
+
+        // then - verify the output
+        assertThat(count).isEqualTo(80);
+        verify(employeeRepository, times(8)).countByIdBetween(anyLong(), anyLong());
+    }
+
+    @DisplayName("JUnit test for stats method")
+    @Test
+    public void givenIdRange_whenStats_thenMergeTheGroupsOfAllChunks() {
+        // given - precondition or setup
+        given(employeeRepository.findMinId()).willReturn(1L);
+        given(employeeRepository.findMaxId()).willReturn(40L);
+        given(employeeRepository.countByEmailDomainInIdRange(anyLong(), anyLong()))
+                .willAnswer(invocation -> List.of(groupCount("gmail.com", 2), groupCount("stark.com", 1)));
+
+        // when - action or the behavior that we are going test
+        EmployeeStats stats = employeeAggregator.stats(SnapshotColumn.EMAIL_DOMAIN, 1);
+
+        // then - verify the output
+        assertThat(stats.total()).isEqualTo(12);
+        assertThat(stats.groups()).extracting(EmployeeStats.Group::key, EmployeeStats.Group::count)
+                .containsExactly(tuple("gmail.com", 8L));
+    }
+
+    @DisplayName("JUnit test for stats method, keys grouped like the snapshot rows")
+    @Test
+    public void givenKeysDifferingByCaseOrQuotedAt_whenStats_thenGroupedTogether() {
+        // given - precondition or setup
+        given(employeeRepository.findMinId()).willReturn(1L);
+        given(employeeRepository.findMaxId()).willReturn(10L);
+        given(employeeRepository.countByLastNameInIdRange(anyLong(), anyLong()))
+                .willReturn(List.of(groupCount("Stark", 2), groupCount("stark", 1)));
+        given(employeeRepository.countByEmailDomainInIdRange(anyLong(), anyLong()))
+                .willReturn(List.of(groupCount("stark.com", 2), groupCount("iron\"@STARK.com", 1)));
+
+        // when - action or the behavior that we are going test
+        EmployeeStats lastNames = employeeAggregator.stats(SnapshotColumn.LAST_NAME, 10);
+        EmployeeStats domains = employeeAggregator.stats(SnapshotColumn.EMAIL_DOMAIN, 10);
+
+        // then - verify the output
+        assertThat(lastNames.groups()).extracting(EmployeeStats.Group::key, EmployeeStats.Group::count)
+                .containsExactly(tuple("stark", 3L));
+        assertThat(domains.groups()).extracting(EmployeeStats.Group::key, EmployeeStats.Group::count)
+                .containsExactly(tuple("stark.com", 3L));
+    }
+
+    @DisplayName("JUnit test for count method (empty table)")
+    @Test
+    public void givenNoEmployees_whenCount_thenReturnZero() {
+        // given - precondition or setup
+        given(employeeRepository.findMinId()).willReturn(null);
+
+        // when - action or the behavior that we are going test
+        long count = employeeAggregator.count();
+
+        // then - verify the output
+        assertThat(count).isZero();
+    }
+
+    private static EmployeeRepository.GroupCount groupCount(String key, long count) {
+        return new EmployeeRepository.GroupCount() {
+            @Override
+            public String getKey() {
+                return key;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package net.javaguide.springboottesting.unit.bulkimport;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguide.springboottesting.bulkimport.EmployeeCsvImporter;
+import net.javaguide.springboottesting.bulkimport.ImportProperties;
+import net.javaguide.springboottesting.bulkimport.ImportReport;
+import net.javaguide.springboottesting.directory.EmployeeDirectory;
+import net.javaguide.springboottesting.stream.EmployeeChangeBroadcaster;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeCsvImporterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private EmployeeDirectory employeeDirectory;
+
+    @Mock
+    private EmployeeChangeBroadcaster employeeChangeBroadcaster;
+
+    private EmployeeCsvImporter employeeCsvImporter;
+
+    @BeforeEach
+    public void setup() {
+        ImportProperties properties = new ImportProperties();
+        properties.setBatchSize(2);
+
+        employeeCsvImporter = new EmployeeCsvImporter(jdbcTemplate, new SyncTaskExecutor(),
+                new TransactionTemplate(transactionManager), new ConcurrentMapCacheManager(), sessionFactory,
+                employeeDirectory, employeeChangeBroadcaster, properties, new SimpleMeterRegistry());
+    }
+
+    @DisplayName("JUnit test for importCsv method")
+    @SuppressWarnings("unchecked")
+    @Test
+    public void givenCsvWithHeader_whenImportCsv_thenUpsertValidRowsInBatchesAndReportErrors() throws Exception {
+        // given - precondition or setup
+        String csv = """
+                email,first_name,last_name
+                ramesh@gmail.com,Ramesh,Fadatare
+                RAMESH@gmail.com,Ramesh,"Fadatare, Jr"
+                not-an-email,Tony,Stark
+                john@gmail.com,John,Cena
+                """;
+        given(sessionFactory.unwrap(SessionFactory.class)).willReturn(sessionFactory);
+
+        // when - action or the behavior that we are going test
+        ImportReport report = employeeCsvImporter.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        // then - verify the output
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batches.capture());
+        assertThat(batches.getAllValues().get(0))
+                .containsExactly(new Object[]{"Ramesh", "Fadatare, Jr", "RAMESH@gmail.com"});
+        assertThat(batches.getAllValues().get(1))
+                .containsExactly(new Object[]{"John", "Cena", "john@gmail.com"});
+
+        assertThat(report.rowsRead()).isEqualTo(4);
+        assertThat(report.rowsUpserted()).isEqualTo(2);
+        assertThat(report.rowsRejected()).isEqualTo(1);
+        assertThat(report.duplicates()).isEqualTo(1);
+        assertThat(report.errors()).extracting(ImportReport.RowError::line).containsExactly(4L);
+        verify(sessionFactory.getCache()).evictQueryRegions();
+        verify(employeeDirectory).reload();
+        verify(employeeChangeBroadcaster).reset();
+    }
+
+    @DisplayName("JUnit test for importCsv method (nothing valid to import)")
+    @Test
+    public void givenCsvWithoutValidRows_whenImportCsv_thenNothingIsUpserted() throws Exception {
+        // given - precondition or setup
+        String csv = "Tony,Stark\n";
+
+        // when - action or the behavior that we are going test
+        ImportReport report = employeeCsvImporter.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        // then - verify the output
+        verify(jdbcTemplate, times(0)).batchUpdate(anyString(), anyList());
+        verify(employeeDirectory, times(0)).reload();
+        assertThat(report.rowsRejected()).isEqualTo(1);
+        assertThat(report.errors().get(0).message()).isEqualTo("Expected 3 columns, got 2");
+    }
+}
@@ -0,0 +1,95 @@
+package net.javaguide.springboottesting.unit.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguide.springboottesting.cache.InProcessCacheInvalidationBus;
+import net.javaguide.springboottesting.cache.NearCacheManager;
+import net.javaguide.springboottesting.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearCacheManagerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    // two nodes sharing the same shared cache and invalidation bus
+    private Cache node1;
+    private Cache node2;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        ConcurrentMapCacheManager sharedCacheManager = new ConcurrentMapCacheManager();
+        sharedCacheManager.setStoreByValue(true);
+        InProcessCacheInvalidationBus invalidationBus = new InProcessCacheInvalidationBus();
+        meterRegistry = new SimpleMeterRegistry();
+
+        node1 = new NearCacheManager(sharedCacheManager, invalidationBus, Caffeine.newBuilder(), meterRegistry)
+                .getCache("employees");
+        node2 = new NearCacheManager(sharedCacheManager, invalidationBus, Caffeine.newBuilder(), meterRegistry)
+                .getCache("employees");
+
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("firstname")
+                .lastName("lastname")
+                .email("email@email.com").build();
+    }
+
+    @DisplayName("JUnit test for near-cache - value put on one node is read through the shared tier on another")
+    @Test
+    public void givenValuePutOnNode1_whenGetOnNode2_thenReturnValueFromSharedThenNearTier() {
+        // given - precondition or setup
+        node1.put(1L, employee);
+
+        // when - action or the behavior that we are going test
+        Employee fromShared = node2.get(1L, Employee.class);
+        Employee fromNear = node2.get(1L, Employee.class);
+
+        // then - verify the output
+        assertThat(fromShared.getEmail()).isEqualTo("email@email.com");
+        assertThat(fromNear.getEmail()).isEqualTo("email@email.com");
+        assertThat(fromNear).isNotSameAs(fromShared);
+        assertThat(meterRegistry.get("employee.cache.gets").tag("tier", "shared").tag("result", "hit")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("employee.cache.gets").tag("tier", "near").tag("result", "hit")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("JUnit test for near-cache - evict on one node invalidates the near copy on other nodes")
+    @Test
+    public void givenValueCachedOnBothNodes_whenEvictOnNode1_thenNode2ReturnsNull() {
+        // given - precondition or setup
+        node1.put(1L, employee);
+        node2.get(1L, Employee.class);
+
+        // when - action or the behavior that we are going test
+        node1.evict(1L);
+
+        // then - verify the output
+        assertThat(node2.get(1L)).isNull();
+    }
+
+    @DisplayName("JUnit test for near-cache - a read-miss fill on one node leaves the near copy of other nodes")
+    @Test
+    public void givenValueCachedOnNode2_whenPutOnNode1_thenNode2KeepsItsNearCopy() {
+        // given - precondition or setup
+        node1.put(1L, employee);
+        node2.get(1L, Employee.class);
+
+        // when - action or the behavior that we are going test
+        node1.put(1L, employee);
+        Employee fromNode2 = node2.get(1L, Employee.class);
+
+        // then - verify the output
+        assertThat(fromNode2.getEmail()).isEqualTo("email@email.com");
+        assertThat(meterRegistry.get("employee.cache.gets").tag("tier", "near").tag("result", "hit")
+                .counter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,61 @@
+package net.javaguide.springboottesting.unit.connection;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguide.springboottesting.connection.ConnectionHoldTimeDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionHoldTimeDataSourceTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @AfterEach
+    public void cleanup() {
+        ConnectionHoldTimeDataSource.clearEndpoint();
+    }
+
+    @DisplayName("JUnit test for the hold time of connections, by endpoint")
+    @Test
+    public void givenConnectionsTakenInAndOutOfRequests_whenClosed_thenHoldTimeIsRecordedByEndpoint() throws Exception {
+        // given - precondition or setup
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConnectionHoldTimeDataSource holdTimeDataSource = new ConnectionHoldTimeDataSource(dataSource, meterRegistry);
+        given(dataSource.getConnection()).willReturn(connection);
+
+        // when - action or the behavior that we are going test
+        ConnectionHoldTimeDataSource.setEndpoint("EmployeeController.getEmployeeById");
+        Connection inRequest = holdTimeDataSource.getConnection();
+        inRequest.close();
+        inRequest.close();
+        ConnectionHoldTimeDataSource.clearEndpoint();
+        holdTimeDataSource.getConnection().close();
+
+        // then - verify the output
+        Timer requestTimer = meterRegistry.get("employee.connection.hold")
+                .tag("endpoint", "EmployeeController.getEmployeeById").timer();
+        Timer backgroundTimer = meterRegistry.get("employee.connection.hold")
+                .tag("endpoint", ConnectionHoldTimeDataSource.NO_ENDPOINT).timer();
+        assertThat(requestTimer.count()).isEqualTo(1);
+        assertThat(backgroundTimer.count()).isEqualTo(1);
+        assertThat(inRequest.unwrap(Connection.class)).isSameAs(connection);
+        verify(connection, times(3)).close();
+    }
+}
@@ -1,21 +1,49 @@
 package net.javaguide.springboottesting.unit.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguide.springboottesting.aggregate.EmployeeAggregator;
+import net.javaguide.springboottesting.batchupdate.BatchUpdateProperties;
+import net.javaguide.springboottesting.batchupdate.BatchUpdateReport;
+import net.javaguide.springboottesting.bulkhead.BulkheadConfig;
+import net.javaguide.springboottesting.bulkimport.EmployeeCsvImporter;
+import net.javaguide.springboottesting.bulkimport.ImportReport;
+import net.javaguide.springboottesting.exception.EmployeeAlreadyExistsException;
+import net.javaguide.springboottesting.idempotency.IdempotencyConfig;
+import net.javaguide.springboottesting.idempotency.IdempotencyService;
+import net.javaguide.springboottesting.idempotency.IdempotencyStore;
 import net.javaguide.springboottesting.model.Employee;
+import net.javaguide.springboottesting.repository.IdempotencyRecordRepository;
 import net.javaguide.springboottesting.service.EmployeeService;
+import net.javaguide.springboottesting.service.impl.AsyncEmployeeServiceImpl;
+import net.javaguide.springboottesting.snapshot.EmployeeSnapshotStore;
+import net.javaguide.springboottesting.snapshot.EmployeeStats;
+import net.javaguide.springboottesting.snapshot.SnapshotColumn;
+import net.javaguide.springboottesting.stream.EmployeeChangeBroadcaster;
+import net.javaguide.springboottesting.stream.StreamProperties;
+import net.javaguide.springboottesting.warmup.EmployeeAccessTracker;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.sql.SQLException;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.*;
@@ -24,6 +52,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest
+@Import({SimpleMeterRegistry.class, BulkheadConfig.class,
+        IdempotencyConfig.class, IdempotencyStore.class, IdempotencyService.class, StreamProperties.class,
+        BatchUpdateProperties.class, AsyncEmployeeServiceImpl.class})
 class EmployeeControllerTest {
 
     @Autowired
@@ -32,6 +63,24 @@ class EmployeeControllerTest {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeAccessTracker employeeAccessTracker;
+
+    @MockBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @MockBean
+    private EmployeeCsvImporter employeeCsvImporter;
+
+    @MockBean
+    private EmployeeSnapshotStore employeeSnapshotStore;
+
+    @MockBean
+    private EmployeeAggregator employeeAggregator;
+
+    @MockBean
+    private EmployeeChangeBroadcaster employeeChangeBroadcaster;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -59,6 +108,90 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
     }
 
+    @DisplayName("JUnit test for create(POST) employee REST API - duplicate email")
+    @Test
+    public void givenExistingEmail_whenCreateEmployee_thenReturn409Problem() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("firstName")
+                .lastName("lastName")
+                .email("email@email.com").build();
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willThrow(new EmployeeAlreadyExistsException(employee.getEmail()));
+
+        // when - action or the behavior that we are going test
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the output
+        response.andExpect(status().isConflict())
+                .andDo(print())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status", is(409)))
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+    }
+
+    @DisplayName("JUnit test for create(POST) employee REST API - retry with the same Idempotency-Key")
+    @Test
+    public void givenIdempotencyKey_whenCreateEmployeeTwice_thenSaveOnceAndReplayResponse() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("firstName")
+                .lastName("lastName")
+                .email("email@email.com").build();
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+
+        // when - action or the behavior that we are going test
+        mockMvc.perform(post("/api/employees")
+                .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the output
+        response.andExpect(status().isCreated())
+                .andDo(print())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+        verify(employeeService, times(1)).saveEmployee(any(Employee.class));
+    }
+
+    @DisplayName("JUnit test for create(POST) employee REST API - Idempotency-Key reused for a different request")
+    @Test
+    public void givenUsedIdempotencyKey_whenCreateDifferentEmployee_thenReturn422() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("firstName")
+                .lastName("lastName")
+                .email("email@email.com").build();
+        Employee otherEmployee = Employee.builder()
+                .firstName("otherFirstName")
+                .lastName("otherLastName")
+                .email("other@email.com").build();
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+        mockMvc.perform(post("/api/employees")
+                .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "key-2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // when - action or the behavior that we are going test
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "key-2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(otherEmployee)));
+
+        // then - verify the output
+        response.andExpect(status().isUnprocessableEntity())
+                .andDo(print());
+        verify(employeeService, times(1)).saveEmployee(any(Employee.class));
+    }
+
     @DisplayName("JUnit test for Get All employees REST API")
     @Test
     public void givenListOfEmployees_whenGetAllEmployees_thenReturnEmployeeList() throws Exception {
@@ -75,7 +208,9 @@ class EmployeeControllerTest {
         given(employeeService.getAllEmployees()).willReturn(listOfEmployees);
 
         // when - action or the behavior that we are going test
-        ResultActions response = mockMvc.perform(get("/api/employees"));
+        ResultActions response = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/employees"))
+                .andExpect(request().asyncStarted())
+                .andReturn()));
 
         // then - verify the output
         response.andExpect(status().isOk())
@@ -83,6 +218,62 @@ class EmployeeControllerTest {
                 .andExpect(jsonPath("$.size()", is(listOfEmployees.size())));
     }
 
+    @DisplayName("JUnit test for Get All employees REST API - Smile binary format")
+    @Test
+    public void givenListOfEmployees_whenGetAllEmployeesAsSmile_thenReturnSmileEncodedList() throws Exception {
+        // given - precondition or setup
+        List<Employee> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(Employee.builder()
+                .firstName("firstName1")
+                .lastName("lastName1")
+                .email("email1@email.com").build());
+        listOfEmployees.add(Employee.builder()
+                .firstName("firstName2")
+                .lastName("lastName2")
+                .email("email2@email.com").build());
+        given(employeeService.getAllEmployees()).willReturn(listOfEmployees);
+
+        // when - action or the behavior that we are going test
+        ResultActions response = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/employees")
+                        .accept("application/x-jackson-smile"))
+                .andExpect(request().asyncStarted())
+                .andReturn()));
+
+        // then - verify the output
+        byte[] body = response.andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        Employee[] employees = new SmileMapper().readValue(body, Employee[].class);
+        assertThat(employees).hasSize(listOfEmployees.size());
+        assertThat(employees[0].getEmail()).isEqualTo("email1@email.com");
+    }
+
+    @DisplayName("JUnit test for Get Employee by id REST API - CBOR binary format")
+    @Test
+    public void givenEmployeeId_whenGetEmployeeByIdAsCbor_thenReturnCborEncodedEmployee() throws Exception {
+        // given - precondition or setup
+        Long employeeId = 1L;
+        Employee employee = Employee.builder()
+                .firstName("firstName")
+                .lastName("lastName")
+                .email("email@email.com").build();
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+
+        // when - action or the behavior that we are going test
+        ResultActions response = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/employees/{id}", employeeId)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(request().asyncStarted())
+                .andReturn()));
+
+        // then - verify the output
+        byte[] body = response.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        Employee decoded = new CBORMapper().readValue(body, Employee.class);
+        assertThat(decoded.getFirstName()).isEqualTo(employee.getFirstName());
+        assertThat(decoded.getEmail()).isEqualTo(employee.getEmail());
+    }
+
     @DisplayName("JUnit test for Get Employee by id REST API - positive scenario : valid employee id")
     @Test
     public void givenEmployeeId_whenGetEmployeeById_thenReturnEmployeeObject() throws Exception {
@@ -95,7 +286,9 @@ class EmployeeControllerTest {
         given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
 
         // when - action or the behavior that we are going test
-        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId));
+        ResultActions response = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/employees/{id}", employeeId))
+                .andExpect(request().asyncStarted())
+                .andReturn()));
 
         // then - verify the output
         response.andExpect(status().isOk())
@@ -117,7 +310,9 @@ class EmployeeControllerTest {
         given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.empty());
 
         // when - action or the behavior that we are going test
-        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId));
+        ResultActions response = mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/employees/{id}", employeeId))
+                .andExpect(request().asyncStarted())
+                .andReturn()));
 
         // then - verify the output
         response.andExpect(status().isNotFound())
@@ -183,6 +378,125 @@ class EmployeeControllerTest {
                 .andDo(print());
     }
 
+    @DisplayName("JUnit test for update(PUT) Employee REST API - email of another employee")
+    @Test
+    public void givenTakenEmail_whenUpdateEmployee_thenReturn409() throws Exception {
+        // given - precondition or setup
+        Long employeeId = 1L;
+        Employee savedEmployee = Employee.builder()
+                .firstName("firstName")
+                .lastName("lastName")
+                .email("email@email.com").build();
+        Employee updatedEmployee = Employee.builder()
+                .firstName("firstName")
+                .lastName("lastName")
+                .email("taken@email.com").build();
+
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(savedEmployee));
+        given(employeeService.updateEmployee(any(Employee.class)))
+                .willThrow(new DataIntegrityViolationException("Duplicate entry",
+                        new ConstraintViolationException("Duplicate entry", new SQLException(),
+                                "employees.ux_employees_email")));
+
+        // when - action or the behavior that we are going test
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+        // then - verify the output
+        response.andExpect(status().isConflict()) // 409
+                .andDo(print())
+                .andExpect(jsonPath("$.type", is("/problems/employee-already-exists")));
+    }
+
+    @DisplayName("JUnit test for get employee by email REST API")
+    @Test
+    public void givenEmail_whenGetEmployeeByEmail_thenReturnEmployeeObject() throws Exception {
+        // given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("firstName")
+                .lastName("lastName")
+                .email("email@email.com").build();
+        given(employeeService.getEmployeeByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+
+        // when - action or the behavior that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("email", employee.getEmail()));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.firstName", is(employee.getFirstName())))
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+    }
+
+    @DisplayName("JUnit test for batch update(PUT) of employees REST API")
+    @Test
+    public void givenUpdatedEmployees_whenUpdateEmployees_thenReturnReport() throws Exception {
+        // given - precondition or setup
+        List<Employee> updatedEmployees = List.of(
+                Employee.builder().id(1L).firstName("Ram").lastName("Jadhav").email("ram@gmail.com").build(),
+                Employee.builder().id(2L).firstName("Tony").lastName("Stark").email("tony@gmail.com").build());
+        given(employeeService.updateEmployees(anyList()))
+                .willReturn(new BatchUpdateReport(2, 0, 5, 400));
+
+        // when - action or the behavior that we are going test
+        ResultActions response = mockMvc.perform(put("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployees)));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.rowsUpdated", is(2)));
+    }
+
+    @DisplayName("JUnit test for batch update(PUT) of employees REST API - retry with the same Idempotency-Key")
+    @Test
+    public void givenIdempotencyKey_whenUpdateEmployeesTwice_thenUpdateOnceAndReplayReport() throws Exception {
+        // given - precondition or setup
+        List<Employee> updatedEmployees = List.of(
+                Employee.builder().id(1L).firstName("Ram").lastName("Jadhav").email("ram@gmail.com").build());
+        given(employeeService.updateEmployees(anyList()))
+                .willReturn(new BatchUpdateReport(1, 0, 5, 200));
+
+        // when - action or the behavior that we are going test
+        mockMvc.perform(put("/api/employees/batch")
+                .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "batch-key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployees)));
+        ResultActions response = mockMvc.perform(put("/api/employees/batch")
+                .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "batch-key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployees)));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.rowsUpdated", is(1)));
+        verify(employeeService, times(1)).updateEmployees(anyList());
+    }
+
+    @DisplayName("JUnit test for batch update(PUT) of employees REST API (too many employees)")
+    @Test
+    public void givenTooManyEmployees_whenUpdateEmployees_thenReturn413() throws Exception {
+        // given - precondition or setup
+        List<Employee> updatedEmployees = new ArrayList<>();
+        for (long id = 1; id <= new BatchUpdateProperties().getMaxSize() + 1; id++) {
+            updatedEmployees.add(Employee.builder().id(id).firstName("Ram").lastName("Jadhav")
+                    .email("ram" + id + "@gmail.com").build());
+        }
+
+        // when - action or the behavior that we are going test
+        ResultActions response = mockMvc.perform(put("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployees)));
+
+        // then - verify the output
+        response.andExpect(status().isPayloadTooLarge());
+        verify(employeeService, never()).updateEmployees(anyList());
+    }
+
     @DisplayName("JUnit test for delete Employee REST API")
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenReturn200() throws Exception {
@@ -198,4 +512,107 @@ class EmployeeControllerTest {
                 .andDo(print());
     }
 
-}
\ No newline at end of file
+    @DisplayName("JUnit test for import employees REST API")
+    @Test
+    public void givenCsvFile_whenImportEmployees_thenReturnImportReport() throws Exception {
+        // given - precondition or setup
+        MockMultipartFile file = new MockMultipartFile("file", "employees.csv", "text/csv",
+                "Ramesh,Fadatare,ramesh@gmail.com\n".getBytes());
+        given(employeeCsvImporter.importCsv(any()))
+                .willReturn(new ImportReport(1, 1, 0, 0, 5, 200, List.of()));
+
+        // when - action or the behavior that we are going test
+        ResultActions response = mockMvc.perform(multipart("/api/employees/import").file(file));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.rowsRead", is(1)))
+                .andExpect(jsonPath("$.rowsUpserted", is(1)));
+    }
+
+    @DisplayName("JUnit test for employee stats REST API")
+    @Test
+    public void givenGroupBy_whenGetStats_thenReturnCountsFromSnapshot() throws Exception {
+        // given - precondition or setup
+        given(employeeSnapshotStore.stats(SnapshotColumn.EMAIL_DOMAIN, 100))
+                .willReturn(Optional.of(new EmployeeStats("emailDomain", 3, Instant.now(),
+                        List.of(new EmployeeStats.Group("gmail.com", 2), new EmployeeStats.Group("stark.com", 1)))));
+
+        // when - action or the behavior that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/stats").param("groupBy", "emailDomain"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.total", is(3)))
+                .andExpect(jsonPath("$.groups[0].key", is("gmail.com")))
+                .andExpect(jsonPath("$.groups[0].count", is(2)));
+    }
+
+    @DisplayName("JUnit test for employee stats REST API (fresh, from the database)")
+    @Test
+    public void givenFresh_whenGetStats_thenReturnCountsFromAggregator() throws Exception {
+        // given - precondition or setup
+        given(employeeAggregator.stats(SnapshotColumn.LAST_NAME, 100))
+                .willReturn(new EmployeeStats("lastName", 1, Instant.now(),
+                        List.of(new EmployeeStats.Group("Fadatare", 1))));
+
+        // when - action or the behavior that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/stats")
+                .param("groupBy", "lastName")
+                .param("fresh", "true"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.groups[0].key", is("Fadatare")));
+        verify(employeeSnapshotStore, never()).stats(any(), anyInt());
+    }
+
+    @DisplayName("JUnit test for employee count REST API")
+    @Test
+    public void givenEmployees_whenGetCount_thenReturnCount() throws Exception {
+        // given - precondition or setup
+        given(employeeAggregator.count()).willReturn(42L);
+
+        // when - action or the behavior that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/count"));
+
+        // then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.count", is(42)));
+    }
+
+    @DisplayName("JUnit test for employee stats REST API (unknown groupBy)")
+    @Test
+    public void givenUnknownGroupBy_whenGetStats_thenReturn400() throws Exception {
+        // given - precondition or setup
+
+        // when - action or the behavior that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/stats").param("groupBy", "firstName"));
+
+        // then - verify the output
+        response.andExpect(status().isBadRequest())
+                .andDo(print());
+    }
+
+
+    @DisplayName("JUnit test for employee changes stream (SSE) REST API")
+    @Test
+    public void givenLastEventId_whenStreamEmployees_thenSubscribeFromIt() throws Exception {
+        // given - precondition or setup
+        String lastEventId = "node-42";
+
+        // when - action or the behavior that we are going test
+        ResultActions response = mockMvc.perform(get("/api/employees/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", lastEventId));
+
+        // then - verify the output
+        response.andExpect(request().asyncStarted())
+                .andDo(print());
+        verify(employeeChangeBroadcaster).subscribe(any(), eq(lastEventId));
+    }
+}
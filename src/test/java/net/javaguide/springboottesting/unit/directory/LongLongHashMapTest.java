@@ -0,0 +1,41 @@
+package net.javaguide.springboottesting.unit.directory;
+
+import net.javaguide.springboottesting.directory.LongLongHashMap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongLongHashMapTest {
+
+    @DisplayName("JUnit test for put, get and remove against a HashMap")
+    @Test
+    public void givenRandomOperations_whenApplied_thenSameContentAsHashMap() {
+        // given - precondition or setup
+        LongLongHashMap map = new LongLongHashMap(16);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // when - action or the behavior that we are going test
+        for (int i = 0; i < 100_000; i++) {
+            long key = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                Long removed = expected.remove(key);
+                assertThat(map.remove(key)).isEqualTo(removed == null ? LongLongHashMap.NO_VALUE : removed);
+            } else {
+                Long previous = expected.put(key, (long) i);
+                assertThat(map.put(key, i)).isEqualTo(previous == null ? LongLongHashMap.NO_VALUE : previous);
+            }
+        }
+
+        // then - verify the output
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 1; key <= 5_000; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, LongLongHashMap.NO_VALUE));
+        }
+    }
+}
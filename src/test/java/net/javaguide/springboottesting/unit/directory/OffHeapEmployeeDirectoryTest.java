@@ -0,0 +1,66 @@
+package net.javaguide.springboottesting.unit.directory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguide.springboottesting.directory.DirectoryProperties;
+import net.javaguide.springboottesting.directory.OffHeapEmployeeDirectory;
+import net.javaguide.springboottesting.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class OffHeapEmployeeDirectoryTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private OffHeapEmployeeDirectory employeeDirectory;
+
+    @BeforeEach
+    public void setup() {
+        DirectoryProperties properties = new DirectoryProperties();
+        // a few records per segment
+        properties.setSegmentSize(DataSize.ofBytes(128));
+        employeeDirectory = new OffHeapEmployeeDirectory(jdbcTemplate, properties, new SimpleMeterRegistry());
+    }
+
+    @DisplayName("JUnit test for put, update and remove of employees")
+    @Test
+    public void givenEmployees_whenPutUpdateAndRemove_thenLookupsReflectTheLastWrite() {
+        // given - precondition or setup
+        for (long id = 1; id <= 100; id++) {
+            employeeDirectory.put(Employee.builder()
+                    .id(id)
+                    .firstName("Ramesh" + id)
+                    .lastName("Fadatare")
+                    .email("ramesh" + id + "@gmail.com").build());
+        }
+
+        // when - action or the behavior that we are going test
+        employeeDirectory.put(Employee.builder()
+                .id(7)
+                .firstName("Tony")
+                .lastName("Stark")
+                .email("tony@stark.com").build());
+        employeeDirectory.remove(8);
+
+        // then - verify the output
+        assertThat(employeeDirectory.findById(1)).get()
+                .extracting(Employee::getEmail).isEqualTo("ramesh1@gmail.com");
+        assertThat(employeeDirectory.findById(7)).get()
+                .extracting(Employee::getFirstName).isEqualTo("Tony");
+        assertThat(employeeDirectory.findByEmail("TONY@stark.com")).get()
+                .extracting(Employee::getId).isEqualTo(7L);
+        assertThat(employeeDirectory.findByEmail("ramesh7@gmail.com")).isEmpty();
+        assertThat(employeeDirectory.findById(8)).isEmpty();
+        assertThat(employeeDirectory.findByEmail("ramesh8@gmail.com")).isEmpty();
+        assertThat(employeeDirectory.findById(101)).isEmpty();
+    }
+}
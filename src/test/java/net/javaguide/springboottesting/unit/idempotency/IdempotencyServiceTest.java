@@ -0,0 +1,143 @@
+package net.javaguide.springboottesting.unit.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguide.springboottesting.idempotency.IdempotencyProperties;
+import net.javaguide.springboottesting.idempotency.IdempotencyService;
+import net.javaguide.springboottesting.idempotency.IdempotencyStore;
+import net.javaguide.springboottesting.limit.ClientIdentity;
+import net.javaguide.springboottesting.limit.LimitProperties;
+import net.javaguide.springboottesting.model.IdempotencyRecord;
+import net.javaguide.springboottesting.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class IdempotencyServiceTest {
+
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private IdempotencyService idempotencyService;
+
+    private AtomicInteger executions;
+
+    @BeforeEach
+    public void setup() {
+        idempotencyRecordRepository = mock(IdempotencyRecordRepository.class);
+        IdempotencyStore idempotencyStore = new IdempotencyStore(idempotencyRecordRepository,
+                new IdempotencyProperties());
+        idempotencyService = new IdempotencyService(idempotencyStore, new ClientIdentity(new LimitProperties()),
+                new ObjectMapper());
+        executions = new AtomicInteger();
+        fromAddress("127.0.0.1");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @DisplayName("JUnit test for a retry reaching a node while the first request runs on another one")
+    @Test
+    public void givenKeyClaimedByAnotherNode_whenExecute_thenConflictWithoutExecuting() {
+        // given - precondition or setup
+        willThrow(new DataIntegrityViolationException("duplicate key"))
+                .given(idempotencyRecordRepository).insertClaim(eq(stored("key-1")), anyString(), any(LocalDateTime.class));
+        given(idempotencyRecordRepository.findById(stored("key-1"))).willReturn(Optional.of(IdempotencyRecord.builder()
+                .idempotencyKey(stored("key-1"))
+                .requestHash("hash")
+                .statusCode(IdempotencyRecord.IN_PROGRESS)
+                .expiresAt(LocalDateTime.now().plusMinutes(1)).build()));
+
+        // when - action or the behavior that we are going test
+        // then - verify the output
+        assertThatThrownBy(() -> idempotencyService.execute("key-1", "request", this::created))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        ex -> assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        assertThat(executions).hasValue(0);
+    }
+
+    @DisplayName("JUnit test for a failed execution, retried with the same key")
+    @Test
+    public void givenFailingAction_whenExecute_thenClaimIsReleased() {
+        // given - precondition or setup
+        // when - action or the behavior that we are going test
+        assertThatThrownBy(() -> idempotencyService.execute("key-2", "request", () -> {
+            throw new IllegalStateException("failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // then - verify the output
+        verify(idempotencyRecordRepository).deleteClaim(stored("key-2"));
+    }
+
+    @DisplayName("JUnit test for an asynchronous execution retried with the same key")
+    @Test
+    public void givenCompletedAsyncExecution_whenRetried_thenResponseIsReplayed() {
+        // given - precondition or setup
+        ResponseEntity<?> first = idempotencyService.executeAsync("key-3", "request",
+                () -> CompletableFuture.completedFuture(created())).join();
+
+        // when - action or the behavior that we are going test
+        ResponseEntity<?> retry = idempotencyService.executeAsync("key-3", "request",
+                () -> CompletableFuture.completedFuture(created())).join();
+
+        // then - verify the output
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(executions).hasValue(1);
+    }
+
+    @DisplayName("JUnit test for two clients sending the same key")
+    @Test
+    public void givenKeyUsedByAnotherClient_whenExecute_thenExecutedAgain() {
+        // given - precondition or setup
+        idempotencyService.execute("key-4", "request", this::created);
+        fromAddress("10.0.0.2");
+
+        // when - action or the behavior that we are going test
+        ResponseEntity<?> response = idempotencyService.execute("key-4", "request", this::created);
+
+        // then - verify the output
+        assertThat(response.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isNull();
+        assertThat(executions).hasValue(2);
+        verify(idempotencyRecordRepository).insertClaim(eq("address:10.0.0.2 key-4"), anyString(),
+                any(LocalDateTime.class));
+    }
+
+    private ResponseEntity<String> created() {
+        return new ResponseEntity<>("employee " + executions.incrementAndGet(), HttpStatus.CREATED);
+    }
+
+    private void fromAddress(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private String stored(String idempotencyKey) {
+        return "address:127.0.0.1 " + idempotencyKey;
+    }
+}
@@ -0,0 +1,67 @@
+package net.javaguide.springboottesting.unit.limit;
+
+import net.javaguide.springboottesting.limit.AdaptiveConcurrencyLimiter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long ONE_MILLI = 1_000_000L;
+
+    @DisplayName("JUnit test for tryAcquire method - requests over the limit are rejected")
+    @Test
+    public void givenLimitReached_whenTryAcquire_thenReject() {
+        // given - precondition or setup
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10);
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+
+        // when - action or the behavior that we are going test
+        boolean acquired = limiter.tryAcquire();
+
+        // then - verify the output
+        assertThat(acquired).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @DisplayName("JUnit test for release method - the limit shrinks when latency rises")
+    @Test
+    public void givenRisingLatency_whenRelease_thenLimitDecreases() {
+        // given - precondition or setup
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(40, 1, 50);
+        limiter.tryAcquire();
+        limiter.release(ONE_MILLI);
+
+        // when - action or the behavior that we are going test
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(20 * ONE_MILLI);
+        }
+
+        // then - verify the output
+        assertThat(limiter.getLimit()).isLessThan(40);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @DisplayName("JUnit test for release method - the limit grows while latency stays at the minimum")
+    @Test
+    public void givenSteadyLatencyAndBusyLimit_whenRelease_thenLimitIncreases() {
+        // given - precondition or setup
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 50);
+
+        // when - action or the behavior that we are going test
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < limiter.getLimit(); j++) {
+                limiter.tryAcquire();
+            }
+            while (limiter.getInFlight() > 0) {
+                limiter.release(ONE_MILLI);
+            }
+        }
+
+        // then - verify the output
+        assertThat(limiter.getLimit()).isGreaterThan(4);
+    }
+}
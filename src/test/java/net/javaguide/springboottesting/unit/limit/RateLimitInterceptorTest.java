@@ -0,0 +1,103 @@
+package net.javaguide.springboottesting.unit.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguide.springboottesting.limit.ClientIdentity;
+import net.javaguide.springboottesting.limit.LimitProperties;
+import net.javaguide.springboottesting.limit.RateLimitInterceptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitInterceptorTest {
+
+    private LimitProperties properties;
+
+    private RateLimitInterceptor interceptor;
+
+    @BeforeEach
+    public void setup() {
+        properties = new LimitProperties();
+        LimitProperties.Endpoint createEmployee = new LimitProperties.Endpoint();
+        createEmployee.setRatePerSecond(0.001);
+        createEmployee.setBurst(1);
+        properties.getEndpoints().put("createEmployee", createEmployee);
+        interceptor = new RateLimitInterceptor(properties, new ClientIdentity(properties), new SimpleMeterRegistry());
+    }
+
+    @DisplayName("JUnit test for the limits of methods of the same name in two controllers")
+    @Test
+    public void givenSameMethodNameInTwoControllers_whenPreHandle_thenEachHasItsOwnBucket() throws Exception {
+        // given - precondition or setup
+        HandlerMethod sync = new HandlerMethod(new SyncController(), "createEmployee");
+        HandlerMethod async = new HandlerMethod(new AsyncController(), "createEmployee");
+
+        // when - action or the behavior that we are going test
+        boolean firstSync = interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), sync);
+        boolean firstAsync = interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), async);
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        boolean secondSync = interceptor.preHandle(new MockHttpServletRequest(), rejected, sync);
+
+        // then - verify the output
+        assertThat(firstSync).isTrue();
+        assertThat(firstAsync).isTrue();
+        assertThat(secondSync).isFalse();
+        assertThat(rejected.getStatus()).isEqualTo(429);
+    }
+
+    @DisplayName("JUnit test for the client of the token bucket - only issued API keys get their own bucket")
+    @Test
+    public void givenUnknownApiKeys_whenPreHandle_thenTheyShareTheBucketOfTheirAddress() throws Exception {
+        // given - precondition or setup
+        properties.getApiKeys().add("issued-key");
+        HandlerMethod sync = new HandlerMethod(new SyncController(), "createEmployee");
+
+        // when - action or the behavior that we are going test
+        boolean firstUnknown = interceptor.preHandle(request("unknown-1"), new MockHttpServletResponse(), sync);
+        boolean secondUnknown = interceptor.preHandle(request("unknown-2"), new MockHttpServletResponse(), sync);
+        boolean issued = interceptor.preHandle(request("issued-key"), new MockHttpServletResponse(), sync);
+
+        // then - verify the output
+        assertThat(firstUnknown).isTrue();
+        assertThat(secondUnknown).isFalse();
+        assertThat(issued).isTrue();
+    }
+
+    @DisplayName("JUnit test for the limits configured for one controller method")
+    @Test
+    public void givenControllerQualifiedLimits_whenForEndpoint_thenTheyOverrideTheMethodNameOnes() {
+        // given - precondition or setup
+        LimitProperties.Endpoint asyncCreate = new LimitProperties.Endpoint();
+        properties.getEndpoints().put("AsyncController.createEmployee", asyncCreate);
+
+        // when - action or the behavior that we are going test
+        LimitProperties.Endpoint async = properties.forEndpoint("AsyncController", "createEmployee");
+        LimitProperties.Endpoint sync = properties.forEndpoint("SyncController", "createEmployee");
+        LimitProperties.Endpoint other = properties.forEndpoint("SyncController", "deleteEmployee");
+
+        // then - verify the output
+        assertThat(async).isSameAs(asyncCreate);
+        assertThat(sync).isSameAs(properties.getEndpoints().get("createEmployee"));
+        assertThat(other).isSameAs(properties.getDefaults());
+    }
+
+    private static MockHttpServletRequest request(String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-API-Key", apiKey);
+        return request;
+    }
+
+    static class SyncController {
+        public void createEmployee() {
+        }
+    }
+
+    static class AsyncController {
+        public void createEmployee() {
+        }
+    }
+}
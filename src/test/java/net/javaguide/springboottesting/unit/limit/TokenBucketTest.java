@@ -0,0 +1,46 @@
+package net.javaguide.springboottesting.unit.limit;
+
+import net.javaguide.springboottesting.limit.TokenBucket;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long ONE_SECOND = 1_000_000_000L;
+
+    @DisplayName("JUnit test for tryAcquire method - burst is allowed, then requests are rejected")
+    @Test
+    public void givenFullBucket_whenAcquireMoreThanBurst_thenReject() {
+        // given - precondition or setup
+        TokenBucket bucket = new TokenBucket(1, 2, 0);
+
+        // when - action or the behavior that we are going test
+        boolean first = bucket.tryAcquire(0);
+        boolean second = bucket.tryAcquire(0);
+        boolean third = bucket.tryAcquire(0);
+
+        // then - verify the output
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(bucket.secondsUntilNextToken()).isEqualTo(1);
+    }
+
+    @DisplayName("JUnit test for tryAcquire method - tokens are refilled over time")
+    @Test
+    public void givenEmptyBucket_whenTimePasses_thenAcquire() {
+        // given - precondition or setup
+        TokenBucket bucket = new TokenBucket(1, 1, 0);
+        bucket.tryAcquire(0);
+
+        // when - action or the behavior that we are going test
+        boolean beforeRefill = bucket.tryAcquire(ONE_SECOND / 2);
+        boolean afterRefill = bucket.tryAcquire(ONE_SECOND);
+
+        // then - verify the output
+        assertThat(beforeRefill).isFalse();
+        assertThat(afterRefill).isTrue();
+    }
+}
@@ -0,0 +1,35 @@
+package net.javaguide.springboottesting.unit.querylog;
+
+import net.javaguide.springboottesting.querylog.QueryLogListener;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryLogListenerTest {
+
+    @DisplayName("JUnit test for fingerprint - literals are replaced by placeholders")
+    @Test
+    public void givenStatementWithLiterals_whenFingerprint_thenReturnNormalizedStatement() {
+        // given - precondition or setup
+        String sql = "select * from employees e\n  where e.first_name = 'John' and e.id = 42";
+
+        // when - action or the behavior that we are going test
+        String fingerprint = QueryLogListener.fingerprint(sql);
+
+        // then - verify the output
+        assertThat(fingerprint).isEqualTo("select * from employees e where e.first_name = ? and e.id = ?");
+    }
+
+    @DisplayName("JUnit test for fingerprint - in lists of any length share one fingerprint")
+    @Test
+    public void givenInLists_whenFingerprint_thenReturnSameFingerprint() {
+        // given - precondition or setup
+        String twoIds = "select * from employees where id in (?, ?)";
+        String threeIds = "select * from employees where id in (1, 2, 3)";
+
+        // when - action or the behavior that we are going test
+        // then - verify the output
+        assertThat(QueryLogListener.fingerprint(twoIds)).isEqualTo(QueryLogListener.fingerprint(threeIds));
+    }
+}
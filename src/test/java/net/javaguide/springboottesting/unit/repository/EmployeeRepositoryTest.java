@@ -226,4 +226,4 @@ class EmployeeRepositoryTest {
         // then - verify the output
         assertThat(savedEmployee).isNotNull();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package net.javaguide.springboottesting.unit.service.impl;
+
+import net.javaguide.springboottesting.bulkhead.Bulkhead;
+import net.javaguide.springboottesting.model.Employee;
+import net.javaguide.springboottesting.service.EmployeeService;
+import net.javaguide.springboottesting.service.impl.AsyncEmployeeServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncEmployeeServiceImplTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private ThreadPoolTaskExecutor executor;
+
+    private AsyncEmployeeServiceImpl asyncEmployeeService;
+
+    @BeforeEach
+    public void setup() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+        Bulkhead bulkhead = new Bulkhead(executor, 200);
+        asyncEmployeeService = new AsyncEmployeeServiceImpl(employeeService, bulkhead, bulkhead);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        executor.shutdown();
+    }
+
+    @DisplayName("JUnit test for getEmployeeById and getAllEmployees async methods")
+    @Test
+    public void givenEmployee_whenGetEmployeeByIdAndGetAllEmployees_thenFuturesCompleteWithThem() {
+        // given - precondition or setup
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("firstname")
+                .lastName("lastname")
+                .email("email@email.com").build();
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+        given(employeeService.getAllEmployees()).willReturn(List.of(employee));
+
+        // when - action or the behavior that we are going test
+        CompletableFuture<Optional<Employee>> byId = asyncEmployeeService.getEmployeeById(1L);
+        CompletableFuture<List<Employee>> all = asyncEmployeeService.getAllEmployees();
+
+        // then - verify the output
+        assertThat(byId.join()).contains(employee);
+        assertThat(all.join()).containsExactly(employee);
+    }
+
+    @DisplayName("JUnit test for async methods when the executor is saturated or too slow")
+    @Test
+    public void givenBlockedExecutor_whenGetEmployeeById_thenTimesOutAndRejects() {
+        // given - precondition or setup
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeService.getEmployeeById(anyLong())).willAnswer(invocation -> {
+            release.await();
+            return Optional.empty();
+        });
+
+        // when - action or the behavior that we are going test
+        CompletableFuture<Optional<Employee>> running = asyncEmployeeService.getEmployeeById(1L);
+        CompletableFuture<Optional<Employee>> queued = asyncEmployeeService.getEmployeeById(2L);
+
+        // then - verify the output
+        try {
+            assertThatThrownBy(() -> asyncEmployeeService.getEmployeeById(3L))
+                    .isInstanceOf(TaskRejectedException.class);
+            assertThatThrownBy(running::join).hasCauseInstanceOf(TimeoutException.class);
+            assertThatThrownBy(queued::join).hasCauseInstanceOf(TimeoutException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @DisplayName("JUnit test for a queued async call that timed out before a thread was free")
+    @Test
+    public void givenTimedOutQueuedCall_whenThreadIsFree_thenCallIsSkipped() throws InterruptedException {
+        // given - precondition or setup
+        given(employeeService.getEmployeeById(1L)).willAnswer(invocation -> {
+            new CountDownLatch(1).await();
+            return Optional.empty();
+        });
+        CompletableFuture<Optional<Employee>> running = asyncEmployeeService.getEmployeeById(1L);
+        CompletableFuture<Optional<Employee>> queued = asyncEmployeeService.getEmployeeById(2L);
+
+        // when - action or the behavior that we are going test
+        assertThatThrownBy(running::join).hasCauseInstanceOf(TimeoutException.class);
+        assertThatThrownBy(queued::join).hasCauseInstanceOf(TimeoutException.class);
+        executor.shutdown();
+        executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS);
+
+        // then - verify the output
+        assertThat(executor.getThreadPoolExecutor().isTerminated()).as("running call interrupted").isTrue();
+        verify(employeeService, never()).getEmployeeById(2L);
+    }
+}
@@ -1,10 +1,18 @@
 package net.javaguide.springboottesting.unit.service.impl;
 
+import jakarta.persistence.EntityManager;
+import net.javaguide.springboottesting.batchupdate.BatchUpdateProperties;
+import net.javaguide.springboottesting.batchupdate.BatchUpdateReport;
+import net.javaguide.springboottesting.cache.CacheConfig;
+import net.javaguide.springboottesting.directory.EmployeeDirectory;
+import net.javaguide.springboottesting.exception.EmployeeAlreadyExistsException;
 import net.javaguide.springboottesting.exception.ResourceNotFoundException;
 import net.javaguide.springboottesting.model.Employee;
 import net.javaguide.springboottesting.repository.EmployeeRepository;
 import net.javaguide.springboottesting.service.impl.EmployeeServiceImpl;
+import net.javaguide.springboottesting.stream.EmployeeChangeBroadcaster;
 import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,7 +20,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -28,6 +40,24 @@ class EmployeeServiceImplTest {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private EmployeeDirectory employeeDirectory;
+
+    @Mock
+    private EmployeeChangeBroadcaster employeeChangeBroadcaster;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private BatchUpdateProperties batchUpdateProperties;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -77,7 +107,7 @@ class EmployeeServiceImplTest {
         System.out.println(employeeService);
 
         // when - action or the behavior that we are going test
-        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+        org.junit.jupiter.api.Assertions.assertThrows(EmployeeAlreadyExistsException.class, () -> {
             employeeService.saveEmployee(employee);
         });
 
@@ -86,6 +116,24 @@ class EmployeeServiceImplTest {
         verify(employeeRepository, never()).save(any(Employee.class));
     }
 
+    @DisplayName("JUnit test for saveEmployee method racing with a concurrent save of the same email")
+    @Test
+    public void givenConcurrentlySavedEmail_whenSaveEmployee_thenThrowsException() {
+        // given - precondition or setup
+        given(employeeRepository.findByEmail(employee.getEmail()))
+                .willReturn(Optional.empty());
+        given(employeeRepository.save(employee)).willThrow(new DataIntegrityViolationException("Duplicate entry",
+                new ConstraintViolationException("Duplicate entry", new SQLException(),
+                        "employees.ux_employees_email")));
+
+        // when - action or the behavior that we are going test
+        org.junit.jupiter.api.Assertions.assertThrows(EmployeeAlreadyExistsException.class,
+                () -> employeeService.saveEmployee(employee));
+
+        // then - verify the output
+        verify(employeeChangeBroadcaster, never()).created(any(Employee.class));
+    }
+
     @DisplayName("JUnit test getAllEmployees method - positive scenario")
     @Test
     public void givenEmployeeList_whenGetAllEmployees_thenReturnEmployeeList() {
@@ -139,6 +187,20 @@ class EmployeeServiceImplTest {
         Assertions.assertThat(savedEmployee).isNotNull();
     }
 
+    @DisplayName("JUnit test for getEmployeeById method (served by the employee directory)")
+    @Test
+    public void givenEmployeeInDirectory_whenGetEmployeeById_thenRepositoryIsNotQueried() {
+        // given - precondition or setup
+        given(employeeDirectory.findById(1L)).willReturn(Optional.of(employee));
+
+        // when - action or the behavior that we are going test
+        Employee savedEmployee = employeeService.getEmployeeById(employee.getId()).get();
+
+        // then - verify the output
+        Assertions.assertThat(savedEmployee.getEmail()).isEqualTo(employee.getEmail());
+        verify(employeeRepository, never()).findById(any());
+    }
+
     @DisplayName("JUnit test for updateEmployee method")
     @Test
     public void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee() {
@@ -154,6 +216,50 @@ class EmployeeServiceImplTest {
         Assertions.assertThat(updatedEmployee.getEmail()).isEqualTo("updatedEmail@email.com");
     }
 
+    @DisplayName("JUnit test for updateEmployees method")
+    @Test
+    public void givenUpdatedEmployees_whenUpdateEmployees_thenUpdateThemByChunks() {
+        // given - precondition or setup
+        given(batchUpdateProperties.getChunkSize()).willReturn(2);
+        List<Employee> savedEmployees = List.of(employee(1L, "firstname"), employee(2L, "firstname"),
+                employee(3L, "firstname"));
+        given(employeeRepository.findAllById(List.of(1L, 2L))).willReturn(savedEmployees.subList(0, 2));
+        given(employeeRepository.findAllById(List.of(3L))).willReturn(savedEmployees.subList(2, 3));
+        given(cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE)).willReturn(cache);
+
+        // when - action or the behavior that we are going test
+        BatchUpdateReport report = employeeService.updateEmployees(List.of(employee(1L, "updated1"),
+                employee(2L, "updated2"), employee(3L, "updated3"), employee(1L, "updated1bis")));
+
+        // then - verify the output
+        Assertions.assertThat(report.rowsUpdated()).isEqualTo(3);
+        Assertions.assertThat(report.duplicates()).isEqualTo(1);
+        Assertions.assertThat(savedEmployees).extracting(Employee::getFirstName)
+                .containsExactly("updated1bis", "updated2", "updated3");
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        verify(employeeChangeBroadcaster, times(3)).updated(any(Employee.class));
+        verify(cache).evict(1L);
+        verify(cache).evict(2L);
+        verify(cache).evict(3L);
+        verify(cache, never()).clear();
+    }
+
+    @DisplayName("JUnit test for updateEmployees method which throws exception")
+    @Test
+    public void givenUnknownEmployeeId_whenUpdateEmployees_thenThrowsException() {
+        // given - precondition or setup
+        given(batchUpdateProperties.getChunkSize()).willReturn(2);
+        given(employeeRepository.findAllById(List.of(1L, 2L))).willReturn(List.of(employee(1L, "firstname")));
+
+        // when - action or the behavior that we are going test
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class,
+                () -> employeeService.updateEmployees(List.of(employee(1L, "updated1"), employee(2L, "updated2"))));
+
+        // then - verify the output
+        verify(entityManager, never()).flush();
+    }
+
     @DisplayName("JUnit test for deleteEmployee method")
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenNothing() {
@@ -166,5 +272,14 @@ class EmployeeServiceImplTest {
 
         // then - verify the output
         verify(employeeRepository, times(1)).deleteById(employeeId);
+        verify(employeeChangeBroadcaster).deleted(employeeId);
+    }
+
+    private static Employee employee(long id, String firstName) {
+        return Employee.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName("lastname")
+                .email("email" + id + "@email.com").build();
     }
-}
\ No newline at end of file
+}
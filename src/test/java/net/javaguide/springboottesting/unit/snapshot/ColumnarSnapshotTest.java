@@ -0,0 +1,88 @@
+package net.javaguide.springboottesting.unit.snapshot;
+
+import net.javaguide.springboottesting.snapshot.ColumnarSnapshot;
+import net.javaguide.springboottesting.snapshot.ColumnarSnapshotWriter;
+import net.javaguide.springboottesting.snapshot.SnapshotColumn;
+import net.javaguide.springboottesting.snapshot.SnapshotRow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @DisplayName("JUnit test for a full snapshot build")
+    @Test
+    public void givenRows_whenWriteSnapshot_thenCountByDictionaryCode() throws Exception {
+        // given - precondition or setup
+        ColumnarSnapshotWriter writer = new ColumnarSnapshotWriter(directory.resolve("gen-1"), 1, null);
+        writer.add(new SnapshotRow(1, "Fadatare", "ramesh@gmail.com"));
+        writer.add(new SnapshotRow(2, "Stark", "tony@STARK.com"));
+        writer.add(new SnapshotRow(3, "Fadatare", "umesh@gmail.com"));
+
+        // when - action or the behavior that we are going test
+        ColumnarSnapshot snapshot = writer.finish(Instant.parse("2022-12-01T10:15:30Z"));
+
+        // then - verify the output
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.indexOf(2)).isEqualTo(1);
+        assertThat(snapshot.indexOf(4)).isNegative();
+        assertThat(counts(snapshot, SnapshotColumn.EMAIL_DOMAIN)).containsOnly(
+                Map.entry("gmail.com", 2L), Map.entry("stark.com", 1L));
+        assertThat(counts(ColumnarSnapshot.open(directory.resolve("gen-1")), SnapshotColumn.LAST_NAME)).containsOnly(
+                Map.entry("fadatare", 2L), Map.entry("stark", 1L));
+    }
+
+    @DisplayName("JUnit test for an incremental snapshot build")
+    @Test
+    public void givenPreviousSnapshotAndChanges_whenMerge_thenApplyUpdatesInsertsAndDeletes() throws Exception {
+        // given - precondition or setup
+        ColumnarSnapshotWriter first = new ColumnarSnapshotWriter(directory.resolve("gen-1"), 1, null);
+        first.add(new SnapshotRow(1, "Fadatare", "ramesh@gmail.com"));
+        first.add(new SnapshotRow(2, "Stark", "tony@stark.com"));
+        first.add(new SnapshotRow(3, "Cena", "john@gmail.com"));
+        ColumnarSnapshot previous = first.finish(Instant.parse("2022-12-01T10:15:30Z"));
+
+        // 2 updated, 4 inserted, 1 deleted
+        List<SnapshotRow> changes = List.of(
+                new SnapshotRow(2, "Stark", "tony@avengers.com"),
+                new SnapshotRow(4, "Fadatare", "umesh@gmail.com"));
+
+        // when - action or the behavior that we are going test
+        ColumnarSnapshotWriter writer = new ColumnarSnapshotWriter(directory.resolve("gen-2"), 2, previous);
+        writer.merge(previous, changes, new long[]{2, 3, 4});
+        ColumnarSnapshot snapshot = writer.finish(Instant.parse("2022-12-01T10:20:00Z"));
+
+        // then - verify the output
+        assertThat(snapshot.generation()).isEqualTo(2);
+        assertThat(snapshot.size()).isEqualTo(3);
+        assertThat(snapshot.indexOf(1)).isNegative();
+        assertThat(counts(snapshot, SnapshotColumn.EMAIL_DOMAIN)).containsOnly(
+                Map.entry("gmail.com", 2L), Map.entry("avengers.com", 1L));
+        assertThat(counts(snapshot, SnapshotColumn.LAST_NAME)).containsOnly(
+                Map.entry("fadatare", 1L), Map.entry("stark", 1L), Map.entry("cena", 1L));
+        // stark.com is no longer used by any row, its code is reclaimed
+        assertThat(snapshot.countBy(SnapshotColumn.EMAIL_DOMAIN)).hasSize(2);
+    }
+
+    private static Map<String, Long> counts(ColumnarSnapshot snapshot, SnapshotColumn column) {
+        long[] counts = snapshot.countBy(column);
+        Map<String, Long> byValue = new HashMap<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                byValue.put(snapshot.decode(column, code), counts[code]);
+            }
+        }
+        return byValue;
+    }
+}
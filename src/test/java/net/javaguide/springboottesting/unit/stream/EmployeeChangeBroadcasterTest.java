@@ -0,0 +1,249 @@
+package net.javaguide.springboottesting.unit.stream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguide.springboottesting.model.Employee;
+import net.javaguide.springboottesting.stream.EmployeeChangeBroadcaster;
+import net.javaguide.springboottesting.stream.EmployeeChangeEvent;
+import net.javaguide.springboottesting.stream.StreamProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class EmployeeChangeBroadcasterTest {
+
+    private StreamProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmployeeChangeBroadcaster broadcaster;
+
+    @BeforeEach
+    public void setup() {
+        properties = new StreamProperties();
+        properties.setBufferSize(2);
+        properties.setReplaySize(3);
+        meterRegistry = new SimpleMeterRegistry();
+        broadcaster = new EmployeeChangeBroadcaster(new SyncTaskExecutor(), properties, meterRegistry);
+    }
+
+    @DisplayName("JUnit test for the fan out of employee changes")
+    @Test
+    public void givenSubscribers_whenEmployeesChange_thenEachSubscriberGetsTheEventsInOrder() {
+        // given - precondition or setup
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        broadcaster.subscribe(first, null);
+        broadcaster.subscribe(second, null);
+
+        // when - action or the behavior that we are going test
+        broadcaster.created(employee(1L, "Ramesh"));
+        broadcaster.updated(employee(1L, "Tony"));
+        broadcaster.deleted(1L);
+
+        // then - verify the output
+        assertThat(first.events)
+                .extracting(EmployeeChangeEvent::type, EmployeeChangeEvent::employeeId)
+                .containsExactly(
+                        tuple(EmployeeChangeEvent.Type.CREATED, 1L),
+                        tuple(EmployeeChangeEvent.Type.UPDATED, 1L),
+                        tuple(EmployeeChangeEvent.Type.DELETED, 1L));
+        assertThat(first.events.get(1).employee().getFirstName()).isEqualTo("Tony");
+        assertThat(first.events).extracting(EmployeeChangeEvent::id).isSorted();
+        assertThat(second.events).isEqualTo(first.events);
+    }
+
+    @DisplayName("JUnit test for resuming a stream from its Last-Event-ID")
+    @Test
+    public void givenLastEventId_whenSubscribe_thenMissedEventsAreReplayed() {
+        // given - precondition or setup
+        RecordingEmitter earlier = new RecordingEmitter();
+        broadcaster.subscribe(earlier, null);
+        broadcaster.created(employee(1L, "Ramesh"));
+        broadcaster.created(employee(2L, "Tony"));
+        broadcaster.created(employee(3L, "John"));
+
+        // when - action or the behavior that we are going test
+        RecordingEmitter resumed = new RecordingEmitter();
+        broadcaster.subscribe(resumed, broadcaster.eventId(earlier.events.get(0)));
+        broadcaster.deleted(3L);
+
+        // then - verify the output
+        assertThat(resumed.events)
+                .extracting(EmployeeChangeEvent::type, EmployeeChangeEvent::employeeId)
+                .containsExactly(
+                        tuple(EmployeeChangeEvent.Type.CREATED, 2L),
+                        tuple(EmployeeChangeEvent.Type.CREATED, 3L),
+                        tuple(EmployeeChangeEvent.Type.DELETED, 3L));
+    }
+
+    @DisplayName("JUnit test for resuming a stream from an event no longer replayable")
+    @Test
+    public void givenLastEventIdOutOfTheReplayBuffer_whenSubscribe_thenResetIsSent() {
+        // given - precondition or setup
+        RecordingEmitter earlier = new RecordingEmitter();
+        broadcaster.subscribe(earlier, null);
+        broadcaster.created(employee(1L, "Ramesh"));
+        for (long id = 2; id <= 5; id++) {
+            broadcaster.created(employee(id, "Tony"));
+        }
+
+        // when - action or the behavior that we are going test
+        RecordingEmitter resumed = new RecordingEmitter();
+        broadcaster.subscribe(resumed, broadcaster.eventId(earlier.events.get(0)));
+        RecordingEmitter previousRun = new RecordingEmitter();
+        broadcaster.subscribe(previousRun, "42");
+        RecordingEmitter otherNode = new RecordingEmitter();
+        new EmployeeChangeBroadcaster(new SyncTaskExecutor(), properties, meterRegistry).subscribe(otherNode,
+                broadcaster.eventId(earlier.events.get(4)));
+
+        // then - verify the output
+        assertThat(resumed.events).extracting(EmployeeChangeEvent::type)
+                .containsExactly(EmployeeChangeEvent.Type.RESET);
+        assertThat(previousRun.events).extracting(EmployeeChangeEvent::type)
+                .containsExactly(EmployeeChangeEvent.Type.RESET);
+        assertThat(otherNode.events).extracting(EmployeeChangeEvent::type)
+                .containsExactly(EmployeeChangeEvent.Type.RESET);
+    }
+
+    @DisplayName("JUnit test for the eviction of a subscriber that falls behind")
+    @Test
+    public void givenSlowSubscriber_whenItsBufferIsFull_thenItIsDisconnected() {
+        // given - precondition or setup
+        List<Runnable> pendingSends = new ArrayList<>();
+        broadcaster = new EmployeeChangeBroadcaster(pendingSends::add, properties, meterRegistry);
+        RecordingEmitter slow = new RecordingEmitter();
+        broadcaster.subscribe(slow, null);
+
+        // when - action or the behavior that we are going test
+        for (long id = 1; id <= 3; id++) {
+            broadcaster.created(employee(id, "Ramesh"));
+        }
+
+        // then - verify the output
+        assertThat(slow.completed).isTrue();
+        assertThat(broadcaster.getSubscriberCount()).isZero();
+        assertThat(meterRegistry.get("employee.stream.evicted").counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("JUnit test for a transaction changing more employees than a subscriber buffers")
+    @Test
+    public void givenBulkUpdateInTransaction_whenCommitted_thenSingleResetIsPublished() {
+        // given - precondition or setup
+        List<Runnable> pendingSends = new ArrayList<>();
+        broadcaster = new EmployeeChangeBroadcaster(pendingSends::add, properties, meterRegistry);
+        RecordingEmitter subscriber = new RecordingEmitter();
+        broadcaster.subscribe(subscriber, null);
+
+        // when - action or the behavior that we are going test
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            for (long id = 1; id <= 3; id++) {
+                broadcaster.updated(employee(id, "Ramesh"));
+            }
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        pendingSends.forEach(Runnable::run);
+
+        // then - verify the output
+        assertThat(subscriber.completed).isFalse();
+        assertThat(subscriber.events).extracting(EmployeeChangeEvent::type)
+                .containsExactly(EmployeeChangeEvent.Type.RESET);
+        assertThat(TransactionSynchronizationManager.getResourceMap()).isEmpty();
+    }
+
+    @DisplayName("JUnit test for the eviction of a subscriber whose send blocks")
+    @Test
+    public void givenBlockedSend_whenSendTimeoutElapses_thenSubscriberIsDisconnectedAndSenderReplaced()
+            throws Exception {
+        // given - precondition or setup
+        properties.setSendTimeout(Duration.ofMillis(50));
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.initialize();
+        broadcaster = new EmployeeChangeBroadcaster(executor, properties, meterRegistry);
+        CountDownLatch sendStarted = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        RecordingEmitter stalled = new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                sendStarted.countDown();
+                try {
+                    unblock.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        broadcaster.subscribe(stalled, null);
+        broadcaster.created(employee(1L, "Ramesh"));
+        assertThat(sendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+
+        try {
+            // when - action or the behavior that we are going test
+            broadcaster.evictBlockedSubscribers();
+
+            // then - verify the output
+            assertThat(stalled.completed).isTrue();
+            assertThat(broadcaster.getSubscriberCount()).isZero();
+            assertThat(meterRegistry.get("employee.stream.blocked").counter().count()).isEqualTo(1);
+            assertThat(executor.getCorePoolSize()).isEqualTo(2);
+        } finally {
+            unblock.countDown();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.getCorePoolSize() != 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(executor.getCorePoolSize()).isEqualTo(1);
+        executor.shutdown();
+    }
+
+    private static Employee employee(long id, String firstName) {
+        return Employee.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName("Fadatare")
+                .email(firstName.toLowerCase() + id + "@gmail.com").build();
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<EmployeeChangeEvent> events = new ArrayList<>();
+        private volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            builder.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .filter(EmployeeChangeEvent.class::isInstance)
+                    .map(EmployeeChangeEvent.class::cast)
+                    .forEach(events::add);
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+            super.complete();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package net.javaguide.springboottesting.unit.warmup;
+
+import net.javaguide.springboottesting.warmup.EmployeeAccessTracker;
+import net.javaguide.springboottesting.warmup.WarmUpProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeAccessTrackerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private WarmUpProperties properties;
+
+    private EmployeeAccessTracker accessTracker;
+
+    @BeforeEach
+    public void setup() {
+        properties = new WarmUpProperties();
+        properties.setSnapshotFile(tempDir.resolve("snapshot.csv"));
+        accessTracker = new EmployeeAccessTracker(properties);
+    }
+
+    @DisplayName("JUnit test for hottestIds method")
+    @Test
+    public void givenAccesses_whenHottestIds_thenReturnIdsByDescendingFrequency() {
+        // given - precondition or setup
+        accessTracker.recordAccess(1L);
+        accessTracker.recordAccess(2L);
+        accessTracker.recordAccess(2L);
+        accessTracker.recordAccess(3L);
+        accessTracker.recordAccess(3L);
+        accessTracker.recordAccess(3L);
+
+        // when - action or the behavior that we are going test
+        List<Long> hottestIds = accessTracker.hottestIds(2);
+
+        // then - verify the output
+        assertThat(hottestIds).containsExactly(3L, 2L);
+    }
+
+    @DisplayName("JUnit test for writeSnapshot and readSnapshot methods")
+    @Test
+    public void givenAccesses_whenWriteSnapshot_thenNextTrackerReadsHottestIds() {
+        // given - precondition or setup
+        accessTracker.recordAccess(1L);
+        accessTracker.recordAccess(2L);
+        accessTracker.recordAccess(2L);
+
+        // when - action or the behavior that we are going test
+        accessTracker.writeSnapshot();
+        List<Long> snapshot = new EmployeeAccessTracker(properties).readSnapshot(10);
+
+        // then - verify the output
+        assertThat(snapshot).containsExactly(2L, 1L);
+    }
+
+    @DisplayName("JUnit test for recordAccess method - tracked ids are bounded")
+    @Test
+    public void givenMaxTrackedIds_whenRecordAccess_thenNewIdsAreIgnored() {
+        // given - precondition or setup
+        properties.setMaxTrackedIds(1);
+        accessTracker.recordAccess(1L);
+
+        // when - action or the behavior that we are going test
+        accessTracker.recordAccess(2L);
+
+        // then - verify the output
+        assertThat(accessTracker.hottestIds(10)).containsExactly(1L);
+    }
+}
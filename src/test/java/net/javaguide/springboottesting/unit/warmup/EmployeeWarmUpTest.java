@@ -0,0 +1,68 @@
+package net.javaguide.springboottesting.unit.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguide.springboottesting.repository.EmployeeRepository;
+import net.javaguide.springboottesting.service.EmployeeService;
+import net.javaguide.springboottesting.warmup.EmployeeAccessTracker;
+import net.javaguide.springboottesting.warmup.EmployeeWarmUp;
+import net.javaguide.springboottesting.warmup.WarmUpProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class EmployeeWarmUpTest {
+
+    @TempDir
+    Path tempDir;
+
+    private EmployeeService employeeService;
+
+    private EmployeeAccessTracker accessTracker;
+
+    private EmployeeWarmUp employeeWarmUp;
+
+    @BeforeEach
+    public void setup() {
+        WarmUpProperties properties = new WarmUpProperties();
+        properties.setSnapshotFile(tempDir.resolve("snapshot.csv"));
+        properties.setTimeout(Duration.ofMillis(200));
+        employeeService = mock(EmployeeService.class);
+        accessTracker = mock(EmployeeAccessTracker.class);
+        employeeWarmUp = new EmployeeWarmUp(employeeService, mock(EmployeeRepository.class), accessTracker,
+                new ObjectMapper(), properties, new SimpleMeterRegistry());
+    }
+
+    @DisplayName("JUnit test for a warm-up lookup that never returns")
+    @Test
+    public void givenHangingLookup_whenRun_thenReturnsAtTheTimeout() {
+        // given - precondition or setup
+        CountDownLatch never = new CountDownLatch(1);
+        given(accessTracker.readSnapshot(anyInt())).willReturn(List.of(1L, 2L));
+        given(employeeService.getEmployeeById(1L)).willAnswer(invocation -> {
+            never.await();
+            return Optional.empty();
+        });
+
+        // when - action or the behavior that we are going test
+        long start = System.nanoTime();
+        employeeWarmUp.run(new DefaultApplicationArguments());
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // then - verify the output
+        assertThat(elapsed).isLessThan(Duration.ofSeconds(5));
+    }
+}
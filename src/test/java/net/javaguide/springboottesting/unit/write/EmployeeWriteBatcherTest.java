@@ -0,0 +1,130 @@
+package net.javaguide.springboottesting.unit.write;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguide.springboottesting.directory.EmployeeDirectory;
+import net.javaguide.springboottesting.exception.EmployeeAlreadyExistsException;
+import net.javaguide.springboottesting.model.Employee;
+import net.javaguide.springboottesting.repository.EmployeeRepository;
+import net.javaguide.springboottesting.stream.EmployeeChangeBroadcaster;
+import net.javaguide.springboottesting.write.EmployeeWriteBatcher;
+import net.javaguide.springboottesting.write.WriteBatchProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.hibernate.exception.ConstraintViolationException;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeWriteBatcherTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EmployeeDirectory employeeDirectory;
+
+    @Mock
+    private EmployeeChangeBroadcaster employeeChangeBroadcaster;
+
+    private EmployeeWriteBatcher employeeWriteBatcher;
+
+    @BeforeEach
+    public void setup() {
+        WriteBatchProperties properties = new WriteBatchProperties();
+        // long enough for all the writes of a test to end up in the same batch
+        properties.setMaxWait(Duration.ofMillis(200));
+
+        employeeWriteBatcher = new EmployeeWriteBatcher(employeeRepository, new TransactionTemplate(transactionManager),
+                new ConcurrentMapCacheManager(), employeeDirectory, employeeChangeBroadcaster, properties,
+                new SimpleMeterRegistry());
+        employeeWriteBatcher.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        employeeWriteBatcher.stop();
+    }
+
+    @DisplayName("JUnit test for save method - writes are committed together, duplicates fail individually")
+    @Test
+    public void givenWritesWithDuplicateEmail_whenSave_thenCommitOneBatchAndFailDuplicate() throws Exception {
+        // given - precondition or setup
+        given(employeeRepository.findByEmailIn(anyCollection())).willReturn(List.of());
+        given(employeeRepository.saveAll(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+
+        // when - action or the behavior that we are going test
+        CompletableFuture<Employee> first = employeeWriteBatcher.save(employee("email1@email.com"));
+        CompletableFuture<Employee> second = employeeWriteBatcher.save(employee("email2@email.com"));
+        CompletableFuture<Employee> duplicate = employeeWriteBatcher.save(employee("email1@email.com"));
+
+        // then - verify the output
+        assertThat(first.get(5, TimeUnit.SECONDS).getEmail()).isEqualTo("email1@email.com");
+        assertThat(second.get(5, TimeUnit.SECONDS).getEmail()).isEqualTo("email2@email.com");
+        assertThatThrownBy(() -> duplicate.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(EmployeeAlreadyExistsException.class);
+        verify(employeeRepository, times(1)).saveAll(anyList());
+        verify(employeeDirectory, times(2)).put(any(Employee.class));
+        verify(employeeChangeBroadcaster, times(2)).created(any(Employee.class));
+    }
+
+    @DisplayName("JUnit test for save method - a concurrent duplicate fails the batch, retried write by write")
+    @Test
+    public void givenConcurrentDuplicateEmail_whenSave_thenOnlyTheDuplicateFailsWithAlreadyExists() throws Exception {
+        // given - precondition or setup
+        given(employeeRepository.findByEmailIn(anyCollection())).willReturn(List.of());
+        given(employeeRepository.saveAll(anyList())).willAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            if (employees.stream().anyMatch(employee -> employee.getEmail().equals("taken@email.com"))) {
+                throw new DataIntegrityViolationException("Duplicate entry",
+                        new ConstraintViolationException("Duplicate entry", new SQLException(),
+                                "employees.ux_employees_email"));
+            }
+            return employees;
+        });
+
+        // when - action or the behavior that we are going test
+        CompletableFuture<Employee> accepted = employeeWriteBatcher.save(employee("email1@email.com"));
+        CompletableFuture<Employee> duplicate = employeeWriteBatcher.save(employee("taken@email.com"));
+
+        // then - verify the output
+        assertThat(accepted.get(5, TimeUnit.SECONDS).getEmail()).isEqualTo("email1@email.com");
+        assertThatThrownBy(() -> duplicate.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(EmployeeAlreadyExistsException.class);
+        verify(employeeDirectory, times(1)).put(any(Employee.class));
+    }
+
+    private Employee employee(String email) {
+        return Employee.builder()
+                .firstName("firstname")
+                .lastName("lastname")
+                .email(email).build();
+    }
+}